@@ -64,6 +64,36 @@ public class SpireSurvivorsMod implements EditStringsSubscriber, PostInitializeS
     public static final String GLOWING_MAP = "glowingMap";
     public static boolean glowingMap = true;
 
+    public static final String TICK_RATE = "tickRate";
+    public static int tickRate = 60;
+
+    public static final String DIRECT_PICKUP_BUFFERS = "directPickupBuffers";
+    public static boolean directPickupBuffers = false;
+
+    public static final String MAX_PICKUPS = "maxPickups";
+    public static int maxPickups = 8192;
+
+    public static final String PARALLEL_PICKUPS = "parallelPickups";
+    public static boolean parallelPickups = false;
+
+    public static final String HORDE_SPAWNS = "hordeSpawns";
+    public static boolean hordeSpawns = false;
+
+    public static final String CROWD_PRESSURE = "crowdPressure";
+    public static boolean crowdPressure = true;
+
+    public static final String NEAR_SIMULATION_RANGE = "nearSimulationRange";
+    public static int nearSimulationRange = 800;
+
+    public static final String FAR_SIMULATION_RANGE = "farSimulationRange";
+    public static int farSimulationRange = 2400;
+
+    public static final String FAR_SIMULATION_INTERVAL = "farSimulationInterval";
+    public static int farSimulationInterval = 4;
+
+    public static final String BAKED_MONSTERS = "bakedMonsters";
+    public static boolean bakedMonsters = true;
+
     public static UIStrings uiStrings;
     public static String[] TEXT;
     public static String[] EXTRA_TEXT;
@@ -93,6 +123,16 @@ public class SpireSurvivorsMod implements EditStringsSubscriber, PostInitializeS
         LODefaultSettings.setProperty(AMBIENT_LIGHT, String.valueOf(ambientLight));
         LODefaultSettings.setProperty(COLORFUL_MAP, Boolean.toString(colorfulMap));
         LODefaultSettings.setProperty(GLOWING_MAP, Boolean.toString(glowingMap));
+        LODefaultSettings.setProperty(TICK_RATE, String.valueOf(tickRate));
+        LODefaultSettings.setProperty(DIRECT_PICKUP_BUFFERS, Boolean.toString(directPickupBuffers));
+        LODefaultSettings.setProperty(MAX_PICKUPS, String.valueOf(maxPickups));
+        LODefaultSettings.setProperty(PARALLEL_PICKUPS, Boolean.toString(parallelPickups));
+        LODefaultSettings.setProperty(HORDE_SPAWNS, Boolean.toString(hordeSpawns));
+        LODefaultSettings.setProperty(CROWD_PRESSURE, Boolean.toString(crowdPressure));
+        LODefaultSettings.setProperty(NEAR_SIMULATION_RANGE, String.valueOf(nearSimulationRange));
+        LODefaultSettings.setProperty(FAR_SIMULATION_RANGE, String.valueOf(farSimulationRange));
+        LODefaultSettings.setProperty(FAR_SIMULATION_INTERVAL, String.valueOf(farSimulationInterval));
+        LODefaultSettings.setProperty(BAKED_MONSTERS, Boolean.toString(bakedMonsters));
         try {
             LOConfig = new SpireConfig(modID, FILE_NAME, LODefaultSettings);
             modEnabled = LOConfig.getBool(ENABLE_MOD);
@@ -102,6 +142,16 @@ public class SpireSurvivorsMod implements EditStringsSubscriber, PostInitializeS
             ambientLight = LOConfig.getInt(AMBIENT_LIGHT);
             colorfulMap = LOConfig.getBool(COLORFUL_MAP);
             glowingMap = LOConfig.getBool(GLOWING_MAP);
+            tickRate = LOConfig.getInt(TICK_RATE);
+            directPickupBuffers = LOConfig.getBool(DIRECT_PICKUP_BUFFERS);
+            maxPickups = LOConfig.getInt(MAX_PICKUPS);
+            parallelPickups = LOConfig.getBool(PARALLEL_PICKUPS);
+            hordeSpawns = LOConfig.getBool(HORDE_SPAWNS);
+            crowdPressure = LOConfig.getBool(CROWD_PRESSURE);
+            nearSimulationRange = LOConfig.getInt(NEAR_SIMULATION_RANGE);
+            farSimulationRange = LOConfig.getInt(FAR_SIMULATION_RANGE);
+            farSimulationInterval = LOConfig.getInt(FAR_SIMULATION_INTERVAL);
+            bakedMonsters = LOConfig.getBool(BAKED_MONSTERS);
         } catch (IOException e) {
             logger.error("Spire Survivors SpireConfig initialization failed:");
             e.printStackTrace();
@@ -0,0 +1,311 @@
+package SpireSurvivors.dungeon;
+
+import SpireSurvivors.entity.AbstractSurvivorMonster;
+import SpireSurvivors.horde.HordeArchetype;
+import SpireSurvivors.horde.HordePool;
+import SpireSurvivors.util.Cullable;
+import SpireSurvivors.util.DepthSorted;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.megacrit.cardcrawl.core.CardCrawlGame;
+import com.megacrit.cardcrawl.core.Settings;
+import com.megacrit.cardcrawl.vfx.AbstractGameEffect;
+
+import java.util.Arrays;
+
+/**
+ * Draws everything standing in the world back to front, so whatever is lower on screen covers what's behind it.<br>
+ * Monsters, horde monsters, the player and {@link DepthSorted} effects all go into one list sorted by depth.
+ * Things outside {@link SurvivorDungeon#view} are left out before sorting. Skeleton monsters only move their animation on
+ * while they're drawn, so culled ones don't pose their skeleton either.
+ * The order of the last frame is kept and only touched up, since things barely move between frames,
+ * so the insertion sort runs in close to linear time.
+ * <p>
+ * Skeleton monsters still need {@link CardCrawlGame#psb}, so the batch is only switched for runs of them
+ * that end up next to each other in the order.
+ */
+public class RenderQueue {
+    private static final int MONSTER = 0;
+    private static final int HORDE = 1;
+    private static final int PLAYER = 2;
+    private static final int EFFECT = 3;
+
+    private int[] kinds = new int[256];
+    /**
+     * Horde handles for {@link RenderQueue#HORDE HORDE} entries
+     */
+    private int[] handles = new int[256];
+    /**
+     * Monsters and effects for {@link RenderQueue#MONSTER MONSTER} and {@link RenderQueue#EFFECT EFFECT} entries
+     */
+    private Object[] objects = new Object[256];
+    private float[] depths = new float[256];
+    private int count = 0;
+
+    /**
+     * The frame horde slots were last seen on screen and last kept in the queue
+     */
+    private final int[] hordeSeen = new int[HordePool.CAPACITY];
+    private final int[] hordeQueued = new int[HordePool.CAPACITY];
+    private int frame = 0;
+    /**
+     * How many monsters and effects were skipped for being off screen on the last frame
+     */
+    private int culledMonsters = 0, culledEffects = 0;
+
+    /**
+     * @return How many things were drawn on the last frame.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return How many monsters, including horde monsters, were off screen on the last frame.
+     */
+    public int culledMonsters() {
+        return culledMonsters;
+    }
+
+    /**
+     * @return How many {@link Cullable} effects were off screen on the last frame.
+     */
+    public int culledEffects() {
+        return culledEffects;
+    }
+
+    /**
+     * Queues and draws everything on screen. {@code sb} has to be begun, and is left begun.
+     * @param alpha How far into the next tick the frame is, from 0 to 1.
+     * @param viewX Where the camera is, like {@link SurvivorDungeon#worldX worldX} but interpolated.
+     * @param viewY Where the camera is, like {@link SurvivorDungeon#worldY worldY} but interpolated.
+     */
+    public void render(SpriteBatch sb, float alpha, float viewX, float viewY) {
+        frame++;
+        culledMonsters = culledEffects = 0;
+        Rectangle view = SurvivorDungeon.view;
+        float minX = view.x, maxX = view.x + view.width;
+        float minY = view.y, maxY = view.y + view.height;
+        markVisible(alpha, minX, minY, maxX, maxY);
+        keepVisible(alpha, viewY - SurvivorDungeon.worldY);
+        addVisible(alpha);
+        sort();
+        draw(sb, alpha, viewX, viewY);
+    }
+
+    /**
+     * Draws the effects that aren't {@link DepthSorted} on top of everything queued, skipping the ones off screen.
+     * Has to be called after {@link RenderQueue#render(SpriteBatch, float, float, float) render()}.
+     */
+    public void renderOverlay(SpriteBatch sb) {
+        for (AbstractGameEffect e : SurvivorDungeon.effects) {
+            if (!(e instanceof DepthSorted) && inView(e)) {
+                e.render(sb);
+            }
+        }
+    }
+
+    private boolean inView(AbstractGameEffect e) {
+        if (!(e instanceof Cullable) || ((Cullable) e).inView(SurvivorDungeon.view)) return true;
+        culledEffects++;
+        return false;
+    }
+
+    /**
+     * Drops everything queued, for when the dungeon is left.
+     */
+    public void clear() {
+        Arrays.fill(objects, 0, count, null);
+        count = 0;
+    }
+
+    private void markVisible(float alpha, float minX, float minY, float maxX, float maxY) {
+        for (AbstractSurvivorMonster m : SurvivorDungeon.monsters) {
+            float x = MathUtils.lerp(m.lastDrawX, m.monster.drawX, alpha);
+            float y = MathUtils.lerp(m.lastDrawY, m.monster.drawY, alpha);
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                m.renderStamp = frame;
+            } else {
+                culledMonsters++;
+            }
+        }
+        HordePool horde = SurvivorDungeon.horde;
+        for (int i = 0; i < horde.size(); i++) {
+            int slot = horde.slot(i);
+            float x = horde.x[slot], y = horde.y[slot];
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                hordeSeen[slot] = frame;
+            } else {
+                culledMonsters++;
+            }
+        }
+    }
+
+    /**
+     * Compacts last frame's order down to what's still alive and on screen, with fresh depths.
+     * Effects are always queued anew, since they come and go quickly.
+     */
+    private void keepVisible(float alpha, float playerOffsetY) {
+        HordePool horde = SurvivorDungeon.horde;
+        int kept = 0;
+        boolean hasPlayer = false;
+        for (int i = 0; i < count; i++) {
+            float depth;
+            switch (kinds[i]) {
+                case MONSTER:
+                    AbstractSurvivorMonster m = (AbstractSurvivorMonster) objects[i];
+                    if (m.renderStamp != frame) continue;
+                    m.renderQueued = frame;
+                    depth = MathUtils.lerp(m.lastDrawY, m.monster.drawY, alpha);
+                    break;
+                case HORDE:
+                    int slot = handles[i] & 0xFFFF;
+                    if (horde.handle(slot) != handles[i] || hordeSeen[slot] != frame) continue;
+                    hordeQueued[slot] = frame;
+                    depth = hordeDepth(horde, slot, alpha);
+                    break;
+                case PLAYER:
+                    hasPlayer = true;
+                    depth = SurvivorDungeon.player.basePlayer.drawY + playerOffsetY;
+                    break;
+                default:
+                    continue;
+            }
+            kinds[kept] = kinds[i];
+            handles[kept] = handles[i];
+            objects[kept] = objects[i];
+            depths[kept] = depth;
+            kept++;
+        }
+        Arrays.fill(objects, kept, count, null);
+        count = kept;
+        if (!hasPlayer) {
+            add(PLAYER, 0, null, SurvivorDungeon.player.basePlayer.drawY + playerOffsetY);
+        }
+    }
+
+    private void addVisible(float alpha) {
+        for (AbstractSurvivorMonster m : SurvivorDungeon.monsters) {
+            if (m.renderStamp == frame && m.renderQueued != frame) {
+                m.renderQueued = frame;
+                add(MONSTER, 0, m, MathUtils.lerp(m.lastDrawY, m.monster.drawY, alpha));
+            }
+        }
+        HordePool horde = SurvivorDungeon.horde;
+        for (int i = 0; i < horde.size(); i++) {
+            int slot = horde.slot(i);
+            if (hordeSeen[slot] == frame && hordeQueued[slot] != frame) {
+                hordeQueued[slot] = frame;
+                add(HORDE, horde.handle(slot), null, hordeDepth(horde, slot, alpha));
+            }
+        }
+        for (AbstractGameEffect e : SurvivorDungeon.effects) {
+            if (e instanceof DepthSorted && inView(e)) {
+                add(EFFECT, 0, e, ((DepthSorted) e).depth());
+            }
+        }
+    }
+
+    private static float hordeDepth(HordePool horde, int slot, float alpha) {
+        return MathUtils.lerp(horde.lastY[slot], horde.y[slot], alpha) - HordeArchetype.get(horde.archetype[slot]).halfHeight;
+    }
+
+    private void add(int kind, int handle, Object object, float depth) {
+        if (count == kinds.length) {
+            int capacity = count * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            handles = Arrays.copyOf(handles, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+            depths = Arrays.copyOf(depths, capacity);
+        }
+        kinds[count] = kind;
+        handles[count] = handle;
+        objects[count] = object;
+        depths[count] = depth;
+        count++;
+    }
+
+    /**
+     * Insertion sort from the highest depth to the lowest. Cheap when the order barely changed since the last frame.
+     */
+    private void sort() {
+        for (int i = 1; i < count; i++) {
+            float depth = depths[i];
+            if (depths[i - 1] >= depth) continue;
+            int kind = kinds[i];
+            int handle = handles[i];
+            Object object = objects[i];
+            int j = i - 1;
+            while (j >= 0 && depths[j] < depth) {
+                kinds[j + 1] = kinds[j];
+                handles[j + 1] = handles[j];
+                objects[j + 1] = objects[j];
+                depths[j + 1] = depths[j];
+                j--;
+            }
+            kinds[j + 1] = kind;
+            handles[j + 1] = handle;
+            objects[j + 1] = object;
+            depths[j + 1] = depth;
+        }
+    }
+
+    private void draw(SpriteBatch sb, float alpha, float viewX, float viewY) {
+        SurvivorDungeon.horde.advanceAnimation(Gdx.graphics.getDeltaTime());
+        boolean drawingSkeletons = false;
+        boolean anySkeletons = false;
+        for (int i = 0; i < count; i++) {
+            AbstractSurvivorMonster m = kinds[i] == MONSTER ? (AbstractSurvivorMonster) objects[i] : null;
+            boolean skeleton = m != null && m.rendersSkeleton();
+            if (skeleton != drawingSkeletons) {
+                if (skeleton) {
+                    sb.end();
+                    CardCrawlGame.psb.begin();
+                } else {
+                    CardCrawlGame.psb.end();
+                    sb.begin();
+                    sb.setBlendFunction(770, 771);
+                }
+                drawingSkeletons = skeleton;
+            }
+
+            switch (kinds[i]) {
+                case MONSTER:
+                    if (skeleton) {
+                        m.renderSkeletonInterpolated(CardCrawlGame.psb, alpha);
+                        anySkeletons = true;
+                    } else {
+                        m.renderInterpolated(sb, alpha);
+                    }
+                    break;
+                case HORDE:
+                    SurvivorDungeon.horde.renderSlot(sb, handles[i] & 0xFFFF, alpha);
+                    break;
+                case PLAYER:
+                    SurvivorDungeon.player.renderInterpolated(sb, viewX - SurvivorDungeon.worldX, viewY - SurvivorDungeon.worldY);
+                    break;
+                case EFFECT:
+                    ((AbstractGameEffect) objects[i]).render(sb);
+                    break;
+            }
+        }
+        if (drawingSkeletons) {
+            CardCrawlGame.psb.end();
+            sb.begin();
+            sb.setBlendFunction(770, 771);
+        }
+        sb.setColor(Color.WHITE);
+
+        // Skeletons can't draw their hitboxes while the polygon batch is running
+        if (Settings.isDebug && anySkeletons) {
+            for (int i = 0; i < count; i++) {
+                if (kinds[i] == MONSTER && ((AbstractSurvivorMonster) objects[i]).rendersSkeleton()) {
+                    ((AbstractSurvivorMonster) objects[i]).monster.hb.render(sb);
+                }
+            }
+        }
+    }
+}
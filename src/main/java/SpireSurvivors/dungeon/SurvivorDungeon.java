@@ -4,12 +4,19 @@ import SpireSurvivors.SpireSurvivorsMod;
 import SpireSurvivors.characters.BasicCharacter;
 import SpireSurvivors.entity.AbstractSurvivorMonster;
 import SpireSurvivors.entity.AbstractSurvivorPlayer;
+import SpireSurvivors.horde.HordeArchetype;
+import SpireSurvivors.horde.HordePool;
 import SpireSurvivors.patches.CardCrawlGamePatches;
 import SpireSurvivors.pickups.AbstractPickup;
+import SpireSurvivors.pickups.PickupArena;
 import SpireSurvivors.pickups.PickupPool;
 import SpireSurvivors.screens.survivorGame.SurvivorChoiceScreen;
 import SpireSurvivors.screens.survivorGame.SurvivorPauseScreen;
 import SpireSurvivors.ui.SurvivorUI;
+import SpireSurvivors.util.CrowdSeparation;
+import SpireSurvivors.util.FlowField;
+import SpireSurvivors.util.PolygonHelper;
+import SpireSurvivors.util.SpatialHash;
 import SpireSurvivors.util.SpawnController;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
@@ -20,6 +27,9 @@ import com.badlogic.gdx.maps.tiled.TiledMap;
 import com.badlogic.gdx.maps.tiled.TmxMapLoader;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.megacrit.cardcrawl.characters.AbstractPlayer;
 import com.megacrit.cardcrawl.core.CardCrawlGame;
@@ -35,6 +45,7 @@ import com.megacrit.cardcrawl.vfx.AbstractGameEffect;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 
 public class SurvivorDungeon {
@@ -56,13 +67,62 @@ public class SurvivorDungeon {
     public static AbstractSurvivorPlayer player;
     public static SurvivorUI ui;
     public static ArrayList<AbstractSurvivorMonster> monsters = new ArrayList<>();
+    /**
+     * How many monsters were in each {@link AbstractSurvivorMonster.SimulationTier SimulationTier} on the last tick
+     */
+    public static final int[] tierCounts = new int[AbstractSurvivorMonster.SimulationTier.values().length];
+    /**
+     * Broad phase for monster collision checks. Rebuilt every frame once monsters are done moving.
+     */
+    public static final SpatialHash<AbstractSurvivorMonster> monsterGrid = new SpatialHash<>(128f * Settings.scale);
+    private static final ArrayList<AbstractSurvivorMonster> collisionCandidates = new ArrayList<>();
+    private static final ArrayList<AbstractSurvivorMonster> collisionResults = new ArrayList<>();
     public static ArrayList<PickupPool> pickupPools = new ArrayList<>(4);
+    /**
+     * Lightweight monsters, for when there are too many of them for {@link SurvivorDungeon#monsters monsters}
+     */
+    public static final HordePool horde = new HordePool();
+    /**
+     * Keeps monsters from stacking on top of each other. Refilled every tick once monsters are done moving.
+     */
+    public static final CrowdSeparation crowd = new CrowdSeparation(HordePool.CAPACITY + 256, 64f * Settings.scale);
+    /**
+     * With {@link SpireSurvivorsMod#crowdPressure crowdPressure}, monsters further than this off screen aren't separated
+     */
+    public static float crowdPressureMargin = 512f * Settings.scale;
+    /**
+     * Draws monsters, the player and projectiles back to front
+     */
+    public static final RenderQueue renderQueue = new RenderQueue();
+    /**
+     * How far outside the screen things are still drawn, so big sprites don't pop in at the edges
+     */
+    public static float cullMargin = 256f * Settings.scale;
+    /**
+     * The part of the world drawn this frame, grown by {@link SurvivorDungeon#cullMargin cullMargin} on every side.
+     * Anything outside of it is skipped while rendering.
+     */
+    public static final Rectangle view = new Rectangle(-cullMargin, -cullMargin, Settings.WIDTH + cullMargin * 2f, Settings.HEIGHT + cullMargin * 2f);
     public static ArrayList<AbstractGameEffect> effects = new ArrayList<>();
     public static ArrayList<AbstractGameEffect> effectsQueue = new ArrayList<>();
 
+    /**
+     * How far the camera has moved from its starting position.<br>
+     * Entities live in world coordinates, which equal screen coordinates offset by ({@code worldX}, {@code worldY}).
+     */
     public static float worldX, worldY;
+    /**
+     * Where the camera was at the start of the last simulation tick. Used to interpolate rendering.
+     */
+    public static float prevWorldX, prevWorldY;
     public static TiledMap map;
+    /**
+     * Leads chasing monsters around the walls of {@link SurvivorDungeon#map map}
+     */
+    public static FlowField flowField;
     public static OrthographicCamera camera;
+    private static final Matrix4 screenProjection = new Matrix4();
+    private static final Matrix4 screenProjectionPsb = new Matrix4();
     public static OrthogonalTiledMapRenderer mapRenderer;
 
     public static DynamicBanner dynamicBanner;
@@ -73,6 +133,20 @@ public class SurvivorDungeon {
 
     public static SpawnController spawnController;
 
+    /**
+     * The length of one simulation tick in seconds. Game logic should advance timers by this instead of the frame time.
+     */
+    public static float tickDuration = 1f / 60f;
+    /**
+     * The most ticks that will be simulated in a single frame. Any time beyond that is dropped, slowing the game down
+     * instead of letting it fall further and further behind.
+     */
+    public static int maxCatchUpTicks = 5;
+    /**
+     * Frame time that hasn't been simulated yet
+     */
+    private static float accumulator;
+
     static {
         try {
             Class<?> lightsOutMod = Class.forName("LightsOut.LightsOutMod");
@@ -99,11 +173,16 @@ public class SurvivorDungeon {
         spawnController = new SpawnController();
         CardCrawlGame.fadeIn(0.5f);
         camera = new OrthographicCamera();
-        camera.setToOrtho(false);
+        camera.setToOrtho(false, Settings.WIDTH, Settings.HEIGHT);
+        worldX = worldY = 0;
+        prevWorldX = prevWorldY = 0;
+        tickDuration = 1f / Math.max(1, SpireSurvivorsMod.tickRate);
+        accumulator = 0;
         map = new TmxMapLoader().load(SpireSurvivorsMod.getModID()+"Resources/tiled/TestMap.tmx");
         mapRenderer = new OrthogonalTiledMapRenderer(map, 16f * Settings.scale);
+        flowField = new FlowField(map, 16f * Settings.scale);
 
-        pickupPools.add(new PickupPool());
+        PickupPool.addPool();
     }
 
     public void update() {
@@ -121,16 +200,54 @@ public class SurvivorDungeon {
                     survivorChoiceScreen.open(false);
                     player.rewards--;
                 }
-                updateGameLogic();
+                updateInput();
+                updateSimulation();
                 break;
         }
         ui.update();
         dynamicBanner.update();
     }
 
+    /**
+     * Runs as many fixed ticks of game logic as the time since the last frame calls for,
+     * then updates effects once for the frame.
+     */
+    public void updateSimulation() {
+        accumulator += Gdx.graphics.getDeltaTime();
+        int ticks = 0;
+        while (accumulator >= tickDuration && ticks < maxCatchUpTicks && currentScreen == CurrentScreen.NONE && !player.basePlayer.isDead) {
+            updateGameLogic();
+            accumulator -= tickDuration;
+            ticks++;
+        }
+        if (ticks >= maxCatchUpTicks) {
+            accumulator %= tickDuration;
+        }
+
+        updateEffects();
+
+        if (player.basePlayer.isDead) {
+            CardCrawlGame.startOver();
+            CardCrawlGamePatches.survivorGame.clear();
+            CardCrawlGamePatches.survivorGame = null;
+        }
+    }
+
+    /**
+     * Advances the game by one tick of {@link SurvivorDungeon#tickDuration tickDuration} seconds.
+     */
     public void updateGameLogic() {
+        prevWorldX = worldX;
+        prevWorldY = worldY;
+        for (AbstractSurvivorMonster m : monsters) {
+            m.storePosition();
+        }
+        horde.storePositions();
+        PickupPool.storePositions();
+
         player.update();
-        updateInput();
+        updateMovement();
+        flowField.update(player.basePlayer.hb.cX, player.basePlayer.hb.cY);
         monsters.removeIf(m -> {
             if (m.monster.isDead) {
                 for (int i = 0; i < m.xpCount; i++) {
@@ -143,11 +260,19 @@ public class SurvivorDungeon {
             return m.monster.isDead;
         });
 
-        for (AbstractSurvivorMonster m : monsters) {
-            m.update();
-        }
+        updateMonsters();
+        horde.update(tickDuration);
+        separateCrowd();
         spawnController.update();
+        updateMonsterGrid();
+
+        PickupPool.update();
+    }
 
+    /**
+     * Updates effects. Effects keep their own frame-based timing, so this runs once per frame rather than per tick.
+     */
+    public void updateEffects() {
         effects.addAll(effectsQueue);
         effects.addAll(AbstractDungeon.effectsQueue);
         effectsQueue.clear();
@@ -156,23 +281,99 @@ public class SurvivorDungeon {
             e.update();
         }
         effects.removeIf(e -> e.isDone);
+    }
 
-        PickupPool.update();
+    /**
+     * Updates every monster as much as its distance from the player calls for,
+     * see {@link AbstractSurvivorMonster#simulate(AbstractSurvivorMonster.SimulationTier) simulate()}.
+     */
+    public static void updateMonsters() {
+        Arrays.fill(tierCounts, 0);
+        float playerX = player.basePlayer.hb.cX;
+        float playerY = player.basePlayer.hb.cY;
+        float near = SpireSurvivorsMod.nearSimulationRange * Settings.scale;
+        float far = Math.max(SpireSurvivorsMod.farSimulationRange * Settings.scale, near);
+        for (AbstractSurvivorMonster m : monsters) {
+            float dx = m.monster.hb.cX - playerX;
+            float dy = m.monster.hb.cY - playerY;
+            float dist2 = dx*dx + dy*dy;
+            AbstractSurvivorMonster.SimulationTier tier = dist2 <= near*near ? AbstractSurvivorMonster.SimulationTier.NEAR
+                    : dist2 <= far*far ? AbstractSurvivorMonster.SimulationTier.MID
+                    : AbstractSurvivorMonster.SimulationTier.FAR;
+            tierCounts[tier.ordinal()]++;
+            m.simulate(tier);
+        }
+    }
 
-        if (player.basePlayer.isDead) {
-            CardCrawlGame.startOver();
-            CardCrawlGamePatches.survivorGame.clear();
-            CardCrawlGamePatches.survivorGame = null;
+    /**
+     * Pushes overlapping monsters, both regular ones and the horde, apart through {@link SurvivorDungeon#crowd crowd}.
+     */
+    public static void separateCrowd() {
+        crowd.ensureCapacity(monsters.size() + horde.size());
+        crowd.clear();
+        for (AbstractSurvivorMonster m : monsters) {
+            Rectangle bounds = m.hitbox.getBoundingRectangle();
+            crowd.add(bounds.x + bounds.width/2f, bounds.y + bounds.height/2f, bounds.width/2f);
+        }
+        for (int i = 0; i < horde.size(); i++) {
+            int slot = horde.slot(i);
+            crowd.add(horde.x[slot], horde.y[slot], HordeArchetype.get(horde.archetype[slot]).halfWidth);
+        }
+
+        if (SpireSurvivorsMod.crowdPressure) {
+            crowd.solve(worldX - crowdPressureMargin, worldY - crowdPressureMargin,
+                    worldX + Settings.WIDTH + crowdPressureMargin, worldY + Settings.HEIGHT + crowdPressureMargin);
+        } else {
+            crowd.solve();
+        }
+
+        // Agents were added in this same order
+        int agent = 0;
+        for (AbstractSurvivorMonster m : monsters) {
+            m.move(crowd.pushX(agent), crowd.pushY(agent));
+            agent++;
+        }
+        for (int i = 0; i < horde.size(); i++, agent++) {
+            float dx = crowd.pushX(agent), dy = crowd.pushY(agent);
+            if (dx != 0 || dy != 0) horde.move(horde.slot(i), dx, dy);
         }
     }
 
+    /**
+     * Rebuilds {@link SurvivorDungeon#monsterGrid monsterGrid} from the current monster positions.
+     */
+    public static void updateMonsterGrid() {
+        monsterGrid.clear();
+        for (AbstractSurvivorMonster m : monsters) {
+            monsterGrid.insert(m, m.hitbox.getBoundingRectangle());
+        }
+    }
+
+    /**
+     * Returns all monsters whose hitbox collides with {@code hitbox}, in no particular order.<br>
+     * The returned list is reused by the next call, so don't hold onto it.
+     * @param hitbox The polygon to check against.
+     * @return The colliding monsters.
+     */
+    public static ArrayList<AbstractSurvivorMonster> collidingMonsters(Polygon hitbox) {
+        collisionCandidates.clear();
+        collisionResults.clear();
+        monsterGrid.query(hitbox.getBoundingRectangle(), collisionCandidates);
+        for (AbstractSurvivorMonster m : collisionCandidates) {
+            if (PolygonHelper.collides(hitbox, m.hitbox)) {
+                collisionResults.add(m);
+            }
+        }
+        return collisionResults;
+    }
+
     public void updateInput() {
         if (PAUSE.isJustPressed()) {
             survivorPauseScreen.open(true);
         }
 
         if (ACTION_MAIN.isJustPressed()) {
-            PickupPool.spawn(InputHelper.mX, InputHelper.mY, AbstractPickup.PickupType.XP, 2, true);
+            PickupPool.spawn(InputHelper.mX + worldX, InputHelper.mY + worldY, AbstractPickup.PickupType.XP, 2, true);
         }
 
         if (ACTION_SUB.isJustPressed()) {
@@ -185,7 +386,12 @@ public class SurvivorDungeon {
             player.movementTutorial.right.justPressed = RIGHT.isJustPressed();
             player.movementTutorial.left.justPressed = LEFT.isJustPressed();
         }
+    }
 
+    /**
+     * Moves the player according to the held movement keys. Runs once per tick.
+     */
+    public void updateMovement() {
         Vector2 dir = new Vector2();
         if (UP.isPressed()) {
             dir.y += 1;
@@ -209,43 +415,44 @@ public class SurvivorDungeon {
         }
     }
 
+    /**
+     * Moves the player by {@code dir} and has the camera follow, keeping the player centered on screen.
+     * @param dir The vector to move by.
+     */
     public void transformWorld(Vector2 dir) {
-        for (AbstractSurvivorMonster m : monsters) {
-            m.move(-dir.x, -dir.y);
-        }
-        PickupPool.move(-dir.x, -dir.y);
+        player.move(dir.x, dir.y);
         worldX += dir.x;
         worldY += dir.y;
-        camera.translate(dir);
     }
 
     public void render(SpriteBatch sb) {
         sb.draw(BACKGROUND, 0, 0, Settings.WIDTH, Settings.HEIGHT);
         sb.end();
+
+        // Render between the last two ticks so movement stays smooth when frames and ticks don't line up
+        float alpha = Math.min(accumulator / tickDuration, 1f);
+        float viewX = MathUtils.lerp(prevWorldX, worldX, alpha);
+        float viewY = MathUtils.lerp(prevWorldY, worldY, alpha);
+        camera.position.set(Settings.WIDTH / 2f + viewX, Settings.HEIGHT / 2f + viewY, 0);
         camera.update();
         mapRenderer.setView(camera);
         mapRenderer.render();
-        sb.begin();
 
-        PickupPool.render(sb);
-
-        for (AbstractSurvivorMonster m : monsters) {
-            if (m.monster.hb.cY <= Settings.HEIGHT/2f) {
-                m.render(sb);
-            }
-        }
+        // Everything in the world is drawn through the camera, the UI on top of it isn't
+        screenProjection.set(sb.getProjectionMatrix());
+        screenProjectionPsb.set(CardCrawlGame.psb.getProjectionMatrix());
+        sb.setProjectionMatrix(camera.combined);
+        CardCrawlGame.psb.setProjectionMatrix(camera.combined);
+        sb.begin();
 
-        player.render(sb);
+        view.set(viewX - cullMargin, viewY - cullMargin, Settings.WIDTH + cullMargin * 2f, Settings.HEIGHT + cullMargin * 2f);
+        // Pickups lie flat on the floor, so they go underneath everything standing on it
+        PickupPool.render(sb, alpha);
+        renderQueue.render(sb, alpha, viewX, viewY);
+        renderQueue.renderOverlay(sb);
 
-        for (AbstractSurvivorMonster m : monsters) {
-            if (m.monster.hb.cY > Settings.HEIGHT/2f) {
-                m.render(sb);
-            }
-        }
-
-        for (AbstractGameEffect e : effects) {
-            e.render(sb);
-        }
+        sb.setProjectionMatrix(screenProjection);
+        CardCrawlGame.psb.setProjectionMatrix(screenProjectionPsb);
 
         ui.render(sb);
         switch (currentScreen) {
@@ -266,9 +473,13 @@ public class SurvivorDungeon {
 
     public void clear() {
         monsters.clear();
+        monsterGrid.clear();
+        horde.clear();
+        renderQueue.clear();
         effects.clear();
         effectsQueue.clear();
-        pickupPools.clear();
+        PickupPool.clearPools();
+        if (Settings.isDebug) PickupArena.checkLeaks();
         if (map != null) {
             map.dispose();
         }
@@ -2,10 +2,13 @@ package SpireSurvivors.effects;
 
 import SpireSurvivors.dungeon.SurvivorDungeon;
 import SpireSurvivors.entity.AbstractSurvivorMonster;
+import SpireSurvivors.util.Cullable;
 import SpireSurvivors.util.PolygonHelper;
 import SpireSurvivors.weapons.abstracts.AbstractSurvivorWeapon;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntSet;
 import com.megacrit.cardcrawl.actions.AbstractGameAction;
 import com.megacrit.cardcrawl.core.Settings;
 import com.megacrit.cardcrawl.helpers.Hitbox;
@@ -13,8 +16,9 @@ import com.megacrit.cardcrawl.vfx.combat.FlashAtkImgEffect;
 
 import java.util.ArrayList;
 
-public class BasicAttackEffect extends FlashAtkImgEffect {
+public class BasicAttackEffect extends FlashAtkImgEffect implements Cullable {
     public ArrayList<AbstractSurvivorMonster> hits = new ArrayList<>();
+    public IntSet hordeHits = new IntSet();
     public Polygon hitbox;
     public AbstractSurvivorWeapon weapon;
     public BasicAttackEffect(AbstractSurvivorWeapon weapon, float x, float y, AbstractGameAction.AttackEffect effect) {
@@ -31,15 +35,21 @@ public class BasicAttackEffect extends FlashAtkImgEffect {
         super.update();
         //Don't damage while fading out
         if (duration > startingDuration/2f) {
-            for (AbstractSurvivorMonster m : SurvivorDungeon.monsters) {
-                if (!hits.contains(m) && PolygonHelper.collides(hitbox, m.hitbox)) {
+            for (AbstractSurvivorMonster m : SurvivorDungeon.collidingMonsters(hitbox)) {
+                if (!hits.contains(m)) {
                     hits.add(m);
                     m.damage(SurvivorDungeon.player, weapon);
                 }
             }
+            SurvivorDungeon.horde.strike(hitbox, hordeHits, weapon);
         }
     }
 
+    @Override
+    public boolean inView(Rectangle view) {
+        return hitbox.getBoundingRectangle().overlaps(view);
+    }
+
     @Override
     public void render(SpriteBatch sb) {
         super.render(sb);
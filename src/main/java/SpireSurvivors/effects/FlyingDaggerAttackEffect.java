@@ -2,6 +2,8 @@ package SpireSurvivors.effects;
 
 import SpireSurvivors.dungeon.SurvivorDungeon;
 import SpireSurvivors.entity.AbstractSurvivorMonster;
+import SpireSurvivors.util.Cullable;
+import SpireSurvivors.util.DepthSorted;
 import SpireSurvivors.util.PolygonHelper;
 import SpireSurvivors.weapons.abstracts.AbstractSurvivorWeapon;
 import com.badlogic.gdx.Gdx;
@@ -11,7 +13,9 @@ import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.math.Interpolation;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntSet;
 import com.megacrit.cardcrawl.core.CardCrawlGame;
 import com.megacrit.cardcrawl.core.Settings;
 import com.megacrit.cardcrawl.helpers.Hitbox;
@@ -20,8 +24,9 @@ import com.megacrit.cardcrawl.vfx.AbstractGameEffect;
 
 import java.util.ArrayList;
 
-public class FlyingDaggerAttackEffect extends AbstractGameEffect {
+public class FlyingDaggerAttackEffect extends AbstractGameEffect implements DepthSorted, Cullable {
     public ArrayList<AbstractSurvivorMonster> hits = new ArrayList<>();
+    public IntSet hordeHits = new IntSet();
     public Polygon hitbox;
     public AbstractSurvivorWeapon weapon;
     private float x;
@@ -100,15 +105,26 @@ public class FlyingDaggerAttackEffect extends AbstractGameEffect {
         hitbox.translate(dx, dy);
         //Don't damage while fading out
         if (duration > startingDuration/8f) {
-            for (AbstractSurvivorMonster m : SurvivorDungeon.monsters) {
-                if (!hits.contains(m) && PolygonHelper.collides(hitbox, m.hitbox)) {
+            for (AbstractSurvivorMonster m : SurvivorDungeon.collidingMonsters(hitbox)) {
+                if (!hits.contains(m)) {
                     hits.add(m);
                     m.damage(SurvivorDungeon.player, weapon);
                 }
             }
+            SurvivorDungeon.horde.strike(hitbox, hordeHits, weapon);
         }
     }
 
+    @Override
+    public boolean inView(Rectangle view) {
+        return hitbox.getBoundingRectangle().overlaps(view);
+    }
+
+    @Override
+    public float depth() {
+        return this.y + (float)this.img.packedHeight / 2.0F;
+    }
+
     public void render(SpriteBatch sb) {
         sb.setColor(this.color);
         sb.draw(this.img, this.x, this.y, (float)this.img.packedWidth / 2.0F, (float)this.img.packedHeight / 2.0F, (float)this.img.packedWidth, (float)this.img.packedHeight, this.scale, this.scale * 1.5F, this.rotation);
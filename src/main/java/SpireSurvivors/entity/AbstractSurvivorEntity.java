@@ -20,5 +20,14 @@ public abstract class AbstractSurvivorEntity {
         }
     }
 
+    /**
+     * Advances all weapons by {@code delta} seconds instead of one tick.
+     */
+    public void update(float delta) {
+        for (AbstractSurvivorWeapon w : weapons) {
+            w.update(delta);
+        }
+    }
+
     abstract void render(SpriteBatch sb);
 }
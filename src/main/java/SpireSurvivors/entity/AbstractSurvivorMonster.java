@@ -1,6 +1,8 @@
 package SpireSurvivors.entity;
 
+import SpireSurvivors.SpireSurvivorsMod;
 import SpireSurvivors.dungeon.SurvivorDungeon;
+import SpireSurvivors.util.AnimationBaker;
 import SpireSurvivors.util.PolygonHelper;
 import SpireSurvivors.weapons.abstracts.AbstractSurvivorWeapon;
 import SpireSurvivors.weapons.monster.MonsterCollisionWeapon;
@@ -8,7 +10,11 @@ import basemod.ReflectionHacks;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
 import com.esotericsoftware.spine.Skeleton;
 import com.megacrit.cardcrawl.cards.DamageInfo;
 import com.megacrit.cardcrawl.core.AbstractCreature;
@@ -20,6 +26,25 @@ import com.megacrit.cardcrawl.powers.AbstractPower;
 import com.megacrit.cardcrawl.vfx.combat.DamageNumberEffect;
 
 public abstract class AbstractSurvivorMonster extends AbstractSurvivorEntity {
+    /**
+     * How much of a monster gets simulated, depending on how far away from the player it is.
+     */
+    public enum SimulationTier {
+        /**
+         * Everything, every tick
+         */
+        NEAR,
+        /**
+         * Movement and timers every tick, but only the cheap parts of the game monster
+         */
+        MID,
+        /**
+         * Like {@link SimulationTier#MID MID}, but only every {@link SpireSurvivorsMod#farSimulationInterval farSimulationInterval} ticks,
+         * moving as far as it would have in all of them
+         */
+        FAR
+    }
+
     public static final Color DAMAGE_TAKEN_COLOR = Color.RED.cpy();
     public static final Color DAMAGE_BLOCKED_COLOR = Color.CYAN.cpy();
 
@@ -27,9 +52,48 @@ public abstract class AbstractSurvivorMonster extends AbstractSurvivorEntity {
     public MonsterCollisionWeapon collisionWeapon;
     public int xpCompression = 0;
     public int xpCount = 1;
+    /**
+     * Where the monster was drawn at the start of the last simulation tick
+     */
+    public float lastDrawX, lastDrawY;
+    public SimulationTier tier = SimulationTier.NEAR;
+    /**
+     * The frame the monster was last seen on screen and last queued on, kept by {@link SpireSurvivors.dungeon.RenderQueue RenderQueue}
+     */
+    public int renderStamp, renderQueued;
+    /**
+     * Ticks that passed since the monster was last updated
+     */
+    private int skippedTicks;
+    /**
+     * How many ticks the current update stands in for. Movement should be scaled by it.
+     */
+    protected float tickScale = 1f;
+    /**
+     * How long the monster's baked animation has been playing, and whether it moved during the last tick
+     */
+    private float animationTime;
+    private boolean walking;
+    /**
+     * Where the monster really is while it's moved for rendering
+     */
+    private float realX, realY;
+    /**
+     * The game monster's private rendering fields, looked up once instead of through reflection every frame.
+     * Call {@link AbstractSurvivorMonster#refreshRenderFields() refreshRenderFields()} whenever the monster reloads its animation.
+     */
+    protected Texture img;
+    protected Skeleton skeleton;
+    protected TextureAtlas atlas;
 
     public AbstractSurvivorMonster(AbstractMonster m, int collisionDamage, float moveSpeed) {
         monster = m;
+        // Has to happen while the hitbox still has its original size
+        if (AnimationBaker.isBaked(m.getClass())) {
+            AnimationBaker.bake(m);
+        }
+        animationTime = MathUtils.random(1f);
+        refreshRenderFields();
         monster.hb.height /= 4f;
         monster.hb.width /= 4f;
         monster.hb_y -= monster.hb.height*3/2;
@@ -38,6 +102,26 @@ public abstract class AbstractSurvivorMonster extends AbstractSurvivorEntity {
         collisionWeapon = new MonsterCollisionWeapon(collisionDamage, 1f, 1);
         speed = moveSpeed;
         damageModifier = 1f;
+        // Spread far monsters out over the interval, so they don't all update on the same tick
+        skippedTicks = MathUtils.random(Math.max(SpireSurvivorsMod.farSimulationInterval - 1, 0));
+        storePosition();
+    }
+
+    /**
+     * Looks up the game monster's image, skeleton and atlas again.
+     */
+    public void refreshRenderFields() {
+        img = ReflectionHacks.getPrivate(monster, AbstractMonster.class, "img");
+        skeleton = ReflectionHacks.getPrivate(monster, AbstractCreature.class, "skeleton");
+        atlas = ReflectionHacks.getPrivate(monster, AbstractCreature.class, "atlas");
+    }
+
+    /**
+     * Remembers the current position so rendering can interpolate from it. Called at the start of every tick.
+     */
+    public void storePosition() {
+        lastDrawX = monster.drawX;
+        lastDrawY = monster.drawY;
     }
 
     public void move(float dx, float dy) {
@@ -93,38 +177,122 @@ public abstract class AbstractSurvivorMonster extends AbstractSurvivorEntity {
 
     @Override
     public void update() {
-        super.update();
+        float delta = SurvivorDungeon.tickDuration * tickScale;
+        super.update(delta);
         movementUpdate();
         monster.update();
         monster.flipHorizontal = SurvivorDungeon.player.basePlayer.hb.cX > monster.hb.cX;
-        collisionWeapon.update();
+        collisionWeapon.update(delta);
         if (collisionWeapon.offCooldown() && PolygonHelper.collides(hitbox, SurvivorDungeon.player.hitbox)) {
             SurvivorDungeon.player.damage(this, collisionWeapon);
             collisionWeapon.onHit();
         }
     }
 
+    /**
+     * Updates the monster as much as {@code tier} calls for. Called once per tick instead of {@link AbstractSurvivorMonster#update() update()}.
+     * @param tier How much of the monster to simulate this tick.
+     */
+    public void simulate(SimulationTier tier) {
+        this.tier = tier;
+        skippedTicks++;
+        if (tier == SimulationTier.FAR && skippedTicks < SpireSurvivorsMod.farSimulationInterval) return;
+
+        tickScale = skippedTicks;
+        skippedTicks = 0;
+        if (tier == SimulationTier.NEAR) {
+            update();
+        } else {
+            updateReduced();
+        }
+        tickScale = 1f;
+    }
+
+    /**
+     * Updates everything but the game monster's own update and the collision with the player.
+     * Only the monster's tint keeps fading, since it shows when the monster gets hit,
+     * and its hitbox keeps following it, since tiers, steering and drops all go by where the hitbox is.
+     * Weapons are advanced by all the ticks the update stands in for.
+     */
+    public void updateReduced() {
+        float delta = SurvivorDungeon.tickDuration * tickScale;
+        super.update(delta);
+        movementUpdate();
+        monster.refreshHitboxLocation();
+        monster.tint.update();
+        monster.flipHorizontal = SurvivorDungeon.player.basePlayer.hb.cX > monster.hb.cX;
+        collisionWeapon.update(delta);
+    }
+
+    /**
+     * Moves the monster for one tick, or {@link AbstractSurvivorMonster#tickScale tickScale} ticks when it has been skipped.
+     */
     public abstract void movementUpdate();
 
+    /**
+     * Renders the monster {@code alpha} of the way between its position at the start of the last tick and its current one.
+     * @param sb The {@link SpriteBatch} to draw onto.
+     * @param alpha How far into the next tick the frame is, from 0 to 1.
+     */
+    public void renderInterpolated(SpriteBatch sb, float alpha) {
+        beginInterpolation(alpha);
+        render(sb);
+        endInterpolation();
+    }
+
+    /**
+     * Like {@link AbstractSurvivorMonster#renderInterpolated(SpriteBatch, float) renderInterpolated()},
+     * but only for monsters that {@link AbstractSurvivorMonster#rendersSkeleton() render a skeleton},
+     * drawing it onto an already begun {@code psb}.
+     */
+    public void renderSkeletonInterpolated(PolygonSpriteBatch psb, float alpha) {
+        beginInterpolation(alpha);
+        renderSkeleton(psb);
+        endInterpolation();
+    }
+
+    /**
+     * Moves the monster to where it should be drawn, until {@link AbstractSurvivorMonster#endInterpolation() endInterpolation()}.
+     */
+    private void beginInterpolation(float alpha) {
+        realX = monster.drawX;
+        realY = monster.drawY;
+        walking = realX != lastDrawX || realY != lastDrawY;
+        monster.drawX = MathUtils.lerp(lastDrawX, realX, alpha);
+        monster.drawY = MathUtils.lerp(lastDrawY, realY, alpha);
+    }
+
+    private void endInterpolation() {
+        monster.drawX = realX;
+        monster.drawY = realY;
+    }
+
+    /**
+     * @return Whether the monster is drawn as a live skeleton, which needs {@link CardCrawlGame#psb} instead of a {@link SpriteBatch}.
+     */
+    public boolean rendersSkeleton() {
+        if (AnimationBaker.isBaked(monster.getClass()) && AnimationBaker.get(monster) != null) return false;
+        return atlas != null;
+    }
+
     @Override
     public void render(SpriteBatch sb) {
-        Texture img = ReflectionHacks.getPrivate(monster, AbstractMonster.class, "img");
-        Skeleton skeleton = ReflectionHacks.getPrivate(monster, AbstractCreature.class, "skeleton");
-        if (ReflectionHacks.getPrivate(monster, AbstractCreature.class, "atlas") == null) {
+        AnimationBaker.BakedAnimation baked = AnimationBaker.isBaked(monster.getClass()) ? AnimationBaker.get(monster) : null;
+        if (baked != null) {
+            renderBaked(sb, baked);
+            monster.hb.render(sb);
+            return;
+        }
+
+        if (atlas == null) {
             sb.setColor(monster.tint.color);
             if (img != null) {
                 sb.draw(img, monster.drawX - (float)img.getWidth() * Settings.scale / 2.0F + monster.animX, monster.drawY + monster.animY, (float)img.getWidth() * Settings.scale, (float)img.getHeight() * Settings.scale, 0, 0, img.getWidth(), img.getHeight(), monster.flipHorizontal, monster.flipVertical);
             }
         } else {
-            monster.state.update(Gdx.graphics.getDeltaTime());
-            monster.state.apply(skeleton);
-            skeleton.updateWorldTransform();
-            skeleton.setPosition(monster.drawX + monster.animX, monster.drawY + monster.animY);
-            skeleton.setColor(monster.tint.color);
-            skeleton.setFlip(monster.flipHorizontal, monster.flipVertical);
             sb.end();
             CardCrawlGame.psb.begin();
-            AbstractCreature.sr.draw(CardCrawlGame.psb, skeleton);
+            renderSkeleton(CardCrawlGame.psb);
             CardCrawlGame.psb.end();
             sb.begin();
             sb.setBlendFunction(770, 771);
@@ -132,4 +300,36 @@ public abstract class AbstractSurvivorMonster extends AbstractSurvivorEntity {
         //monster.renderHealth(sb);
         monster.hb.render(sb);
     }
+
+    /**
+     * Poses the monster's skeleton and draws it onto {@code psb}, which has to be begun already.
+     * Lets the dungeon draw many skeletons in a row without switching batches in between.
+     */
+    public void renderSkeleton(PolygonSpriteBatch psb) {
+        monster.state.update(Gdx.graphics.getDeltaTime());
+        monster.state.apply(skeleton);
+        skeleton.updateWorldTransform();
+        skeleton.setPosition(monster.drawX + monster.animX, monster.drawY + monster.animY);
+        skeleton.setColor(monster.tint.color);
+        skeleton.setFlip(monster.flipHorizontal, monster.flipVertical);
+        AbstractCreature.sr.draw(psb, skeleton);
+    }
+
+    /**
+     * Draws the current frame of the monster's baked animation, instead of posing and drawing its skeleton.
+     */
+    public void renderBaked(SpriteBatch sb, AnimationBaker.BakedAnimation baked) {
+        animationTime += Gdx.graphics.getDeltaTime();
+        TextureRegion frame = baked.frame(walking, animationTime);
+        float width = frame.getRegionWidth();
+        float height = frame.getRegionHeight();
+        float x = monster.drawX + monster.animX - baked.originX;
+        float y = monster.drawY + monster.animY - baked.originY;
+        sb.setColor(monster.tint.color);
+        if (monster.flipHorizontal) {
+            sb.draw(frame, x + width, y, -width, height);
+        } else {
+            sb.draw(frame, x, y, width, height);
+        }
+    }
 }
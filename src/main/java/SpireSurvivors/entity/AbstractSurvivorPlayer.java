@@ -12,7 +12,6 @@ import basemod.ReflectionHacks;
 import basemod.abstracts.CustomPlayer;
 import basemod.animations.AbstractAnimation;
 import basemod.animations.SpriterAnimation;
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.brashmonkey.spriter.Player;
@@ -23,7 +22,10 @@ import com.megacrit.cardcrawl.core.Settings;
 import com.megacrit.cardcrawl.helpers.input.InputHelper;
 import com.megacrit.cardcrawl.vfx.combat.StrikeEffect;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 
 public abstract class AbstractSurvivorPlayer extends AbstractSurvivorEntity {
@@ -31,6 +33,19 @@ public abstract class AbstractSurvivorPlayer extends AbstractSurvivorEntity {
     public static final float PICKUP_PULL_RANGE = 150f * Settings.scale;
     public static final float PICKUP_COLLECT_RANGE = 45f * Settings.scale;
     public static final float INV_TIME = 0.5f;
+    /**
+     * {@code AbstractCreature.updateHealthBar()}, which is private. Looked up once, since it's called every tick.
+     */
+    private static final MethodHandle UPDATE_HEALTH_BAR;
+    static {
+        try {
+            Method updateHealthBar = AbstractCreature.class.getDeclaredMethod("updateHealthBar");
+            updateHealthBar.setAccessible(true);
+            UPDATE_HEALTH_BAR = MethodHandles.lookup().unreflect(updateHealthBar);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
     public AbstractPlayer basePlayer;
     public ArrayList<AbstractWeaponCard> weaponCards = new ArrayList<>();
@@ -112,6 +127,18 @@ public abstract class AbstractSurvivorPlayer extends AbstractSurvivorEntity {
         }
     }
 
+    /**
+     * Moves the player through the world by [{@code dx}, {@code dy}].
+     * @param dx The x distance to move by.
+     * @param dy The y distance to move by.
+     */
+    public void move(float dx, float dy) {
+        basePlayer.drawX += dx;
+        basePlayer.drawY += dy;
+        basePlayer.hb.move(basePlayer.hb.cX + dx, basePlayer.hb.cY + dy);
+        hitbox.translate(dx, dy);
+    }
+
     @Override
     public void damage(AbstractSurvivorEntity attacker, AbstractSurvivorWeapon weapon) {
         if (invTime > 0) return;
@@ -147,14 +174,18 @@ public abstract class AbstractSurvivorPlayer extends AbstractSurvivorEntity {
     @Override
     public void update() {
         super.update();
-        if (invTime > 0) invTime -= Gdx.graphics.getDeltaTime();
+        if (invTime > 0) invTime -= SurvivorDungeon.tickDuration;
         if (invTime < 0) invTime = 0;
-        this.basePlayer.flipHorizontal = InputHelper.mX < basePlayer.hb.cX;
+        this.basePlayer.flipHorizontal = InputHelper.mX + SurvivorDungeon.worldX < basePlayer.hb.cX;
 
         healthBar.setProgress(basePlayer.currentHealth);
         healthBar.update();
 
-        ReflectionHacks.privateMethod(AbstractCreature.class, "updateHealthBar").invoke(basePlayer);
+        try {
+            UPDATE_HEALTH_BAR.invokeExact((AbstractCreature) basePlayer);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
     }
 
     @Override
@@ -173,6 +204,26 @@ public abstract class AbstractSurvivorPlayer extends AbstractSurvivorEntity {
         basePlayer.hb.render(sb);
     }
 
+    /**
+     * Renders the player offset by [{@code dx}, {@code dy}] from its simulated position.
+     * @param sb The {@link SpriteBatch} to draw onto.
+     * @param dx The x offset to render at.
+     * @param dy The y offset to render at.
+     */
+    public void renderInterpolated(SpriteBatch sb, float dx, float dy) {
+        float x = basePlayer.drawX;
+        float y = basePlayer.drawY;
+        float cX = basePlayer.hb.cX;
+        float cY = basePlayer.hb.cY;
+        basePlayer.drawX += dx;
+        basePlayer.drawY += dy;
+        basePlayer.hb.move(cX + dx, cY + dy);
+        render(sb);
+        basePlayer.drawX = x;
+        basePlayer.drawY = y;
+        basePlayer.hb.move(cX, cY);
+    }
+
     public void gainXP(int amount) {
         currentXP += amount;
         while (currentXP >= xpToNextLevel()) {
@@ -0,0 +1,148 @@
+package SpireSurvivors.horde;
+
+import SpireSurvivors.dungeon.SurvivorDungeon;
+import SpireSurvivors.util.AnimationBaker;
+import SpireSurvivors.weapons.monster.MonsterCollisionWeapon;
+import com.badlogic.gdx.math.Vector2;
+import com.megacrit.cardcrawl.monsters.AbstractMonster;
+import com.megacrit.cardcrawl.monsters.exordium.LouseNormal;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Everything horde monsters of one kind share: stats, looks and behavior.<br>
+ * A monster in a {@link HordePool} is only a slot holding its own position, health and timers,
+ * the rest is looked up here through its archetype id.
+ * Archetypes are looked up through a dense table like {@link SpireSurvivors.pickups.AbstractPickup.PickupType PickupType}s,
+ * so every archetype has to be {@link HordeArchetype#register(HordeArchetype) registered} before monsters of it are spawned.
+ */
+public class HordeArchetype {
+    /**
+     * All registered archetypes, indexed by id
+     */
+    private static HordeArchetype[] archetypes = new HordeArchetype[8];
+    /**
+     * The largest hitbox of any prepared archetype, so broad phase queries know how far to look
+     */
+    private static float maxHalfWidth = 0, maxHalfHeight = 0;
+
+    public static final HordeArchetype LOUSE = register(new HordeArchetype(1, () -> new LouseNormal(0, 0), 12, 3f * 60f, 10, 1f, 0));
+
+    public final int id;
+    public final int maxHealth;
+    /**
+     * Movement speed in units per second
+     */
+    public final float speed;
+    /**
+     * How long a monster waits before it can hit the player again, in seconds
+     */
+    public final float attackDelay;
+    public final int xpCompression;
+    public final MonsterCollisionWeapon collisionWeapon;
+
+    private final Supplier<AbstractMonster> model;
+    /**
+     * The monster the archetype takes its looks from. Shared by all monsters of the archetype, so never move or damage it.
+     * Only available once {@link HordeArchetype#prepare() prepared}.
+     */
+    public AbstractMonster monster;
+    /**
+     * What every monster of the archetype looks like. Horde monsters are always drawn baked, since they have no skeleton of their own.
+     * Only available once {@link HordeArchetype#prepare() prepared}.
+     */
+    public AnimationBaker.BakedAnimation animation;
+    /**
+     * Half the size of the hitbox, which is centered on the monster's position
+     */
+    public float halfWidth, halfHeight;
+
+    private final Vector2 heading = new Vector2();
+
+    public HordeArchetype(int id, Supplier<AbstractMonster> model, int maxHealth, float speed, int collisionDamage, float attackDelay, int xpCompression) {
+        if (id <= 0) throw new IllegalArgumentException("HordeArchetype id must be positive");
+        this.id = id;
+        this.model = model;
+        this.maxHealth = maxHealth;
+        this.speed = speed;
+        this.attackDelay = attackDelay;
+        this.xpCompression = xpCompression;
+        this.collisionWeapon = new MonsterCollisionWeapon(collisionDamage, attackDelay, 1);
+    }
+
+    /**
+     * Makes {@code archetype} available to horde pools. Ids should be kept small, since the lookup table is as big as the largest id.
+     * @param archetype The archetype to register.
+     * @return {@code archetype}.
+     */
+    public static <T extends HordeArchetype> T register(T archetype) {
+        if (archetype.id >= archetypes.length) {
+            archetypes = Arrays.copyOf(archetypes, Math.max(archetypes.length * 2, archetype.id + 1));
+        }
+        if (archetypes[archetype.id] != null && archetypes[archetype.id] != archetype) {
+            throw new IllegalArgumentException("HordeArchetype id " + archetype.id + " is already registered");
+        }
+        archetypes[archetype.id] = archetype;
+        return archetype;
+    }
+
+    /**
+     * @return The archetype registered under {@code id}, or {@code null} if there is none.
+     */
+    public static HordeArchetype get(int id) {
+        HordeArchetype[] a = archetypes;
+        return id >= 0 && id < a.length ? a[id] : null;
+    }
+
+    /**
+     * @return Half the width of the widest hitbox of any archetype that has been prepared.
+     */
+    public static float maxHalfWidth() {
+        return maxHalfWidth;
+    }
+
+    /**
+     * @return Half the height of the tallest hitbox of any archetype that has been prepared.
+     */
+    public static float maxHalfHeight() {
+        return maxHalfHeight;
+    }
+
+    /**
+     * Creates the model monster and bakes its animation, if that hasn't happened yet.<br>
+     * Called on spawn, so it has to happen outside of rendering.
+     */
+    public void prepare() {
+        if (monster != null) return;
+        monster = model.get();
+        // Same hitbox shrinking as AbstractSurvivorMonster
+        halfWidth = monster.hb.width / 8f;
+        halfHeight = monster.hb.height / 8f;
+        maxHalfWidth = Math.max(maxHalfWidth, halfWidth);
+        maxHalfHeight = Math.max(maxHalfHeight, halfHeight);
+        animation = AnimationBaker.bake(monster);
+    }
+
+    /**
+     * Moves the monster in {@code slot} for one tick. Walks towards the player along {@link SurvivorDungeon#flowField} by default.
+     * @param pool The pool the monster is in.
+     * @param slot The monster's slot.
+     * @param delta The length of the tick in seconds.
+     */
+    public void update(HordePool pool, int slot, float delta) {
+        float dx = SurvivorDungeon.player.basePlayer.hb.cX - pool.x[slot];
+        float dy = SurvivorDungeon.player.basePlayer.hb.cY - SurvivorDungeon.player.basePlayer.hb.height/2f - pool.y[slot];
+        float dist = (float)Math.sqrt(dx*dx + dy*dy);
+        if (dist < 0.0001f) return;
+        float step = Math.min(pool.speed[slot] * delta, dist);
+        if (SurvivorDungeon.flowField.steer(pool.x[slot], pool.y[slot], heading.set(dx, dy))) {
+            // The field's directions are already normalized
+            pool.x[slot] += heading.x * step;
+            pool.y[slot] += heading.y * step;
+        } else {
+            pool.x[slot] += dx / dist * step;
+            pool.y[slot] += dy / dist * step;
+        }
+    }
+}
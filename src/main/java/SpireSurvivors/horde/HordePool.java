@@ -0,0 +1,323 @@
+package SpireSurvivors.horde;
+
+import SpireSurvivors.dungeon.RenderQueue;
+import SpireSurvivors.dungeon.SurvivorDungeon;
+import SpireSurvivors.entity.AbstractSurvivorMonster;
+import SpireSurvivors.entity.AbstractSurvivorPlayer;
+import SpireSurvivors.pickups.AbstractPickup;
+import SpireSurvivors.pickups.PickupPool;
+import SpireSurvivors.util.PolygonHelper;
+import SpireSurvivors.util.SlotGrid;
+import SpireSurvivors.weapons.abstracts.AbstractSurvivorWeapon;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntSet;
+import com.megacrit.cardcrawl.cards.DamageInfo;
+import com.megacrit.cardcrawl.core.Settings;
+import com.megacrit.cardcrawl.dungeons.AbstractDungeon;
+import com.megacrit.cardcrawl.powers.AbstractPower;
+import com.megacrit.cardcrawl.vfx.combat.DamageNumberEffect;
+
+/**
+ * Holds lightweight monsters in parallel arrays, one slot per monster.<br>
+ * Unlike {@link AbstractSurvivorMonster}s, horde monsters don't own a game monster, a hitbox polygon or any other object.
+ * Everything that isn't per-monster state is shared through their {@link HordeArchetype},
+ * so thousands of them can be updated and drawn without allocating.
+ */
+public class HordePool {
+    /**
+     * The most monsters a pool can hold at once
+     */
+    public static final int CAPACITY = 8192;
+    public static final float GRID_CELL_SIZE = 128f * Settings.scale;
+    /**
+     * How long a monster flashes red after being damaged, in seconds
+     */
+    public static final float FLASH_TIME = 0.15f;
+
+    public static final int FLAG_DEAD = 1;
+
+    // Monster state, indexed by slot
+    public final float[] x = new float[CAPACITY];
+    public final float[] y = new float[CAPACITY];
+    public final float[] lastX = new float[CAPACITY];
+    public final float[] lastY = new float[CAPACITY];
+    public final float[] hp = new float[CAPACITY];
+    public final float[] speed = new float[CAPACITY];
+    public final float[] cooldown = new float[CAPACITY];
+    public final float[] flash = new float[CAPACITY];
+    public final int[] archetype = new int[CAPACITY];
+    public final int[] flags = new int[CAPACITY];
+    /**
+     * Bumped whenever a slot is freed, so {@link HordePool#handle(int) handles} to the old monster stop matching
+     */
+    private final int[] generation = new int[CAPACITY];
+
+    /**
+     * The slots in use, in no particular order, and where each slot sits in that list
+     */
+    private final int[] active = new int[CAPACITY];
+    private final int[] activeIndex = new int[CAPACITY];
+    private int size = 0;
+    private final int[] free = new int[CAPACITY];
+    private int freeCount;
+
+    /**
+     * Broad phase for hits and contact checks. Kept up to date as monsters move.
+     */
+    public final SlotGrid grid = new SlotGrid(CAPACITY, GRID_CELL_SIZE);
+
+    // Scratch for collision checks
+    private final Polygon box = new Polygon(new float[8]);
+    private final Rectangle bounds = new Rectangle();
+    private float animationTime = 0;
+
+    public HordePool() {
+        clear();
+    }
+
+    /**
+     * @return The amount of monsters in the pool.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The slot of the {@code i}th monster in the pool, for {@code i} below {@link HordePool#size() size()}.
+     */
+    public int slot(int i) {
+        return active[i];
+    }
+
+    /**
+     * @return An id for the monster in {@code slot} that won't match whatever takes the slot over once it dies.
+     */
+    public int handle(int slot) {
+        return generation[slot] << 16 | slot;
+    }
+
+    /**
+     * Spawns a monster of {@code type} centered on ({@code x}, {@code y}).
+     * @return The monster's slot, or {@code -1} if the pool is full.
+     */
+    public int spawn(HordeArchetype type, float x, float y) {
+        if (freeCount == 0) return -1;
+        type.prepare();
+
+        int slot = free[--freeCount];
+        activeIndex[slot] = size;
+        active[size++] = slot;
+
+        this.x[slot] = lastX[slot] = x;
+        this.y[slot] = lastY[slot] = y;
+        hp[slot] = type.maxHealth;
+        speed[slot] = type.speed;
+        cooldown[slot] = 0;
+        flash[slot] = 0;
+        archetype[slot] = type.id;
+        flags[slot] = 0;
+        grid.add(slot, x, y);
+        return slot;
+    }
+
+    /**
+     * Removes the monster in {@code slot} without it dying.
+     */
+    public void remove(int slot) {
+        int index = activeIndex[slot];
+        int last = active[--size];
+        active[index] = last;
+        activeIndex[last] = index;
+
+        grid.remove(slot);
+        generation[slot] = (generation[slot] + 1) & 0x7FFF;
+        free[freeCount++] = slot;
+    }
+
+    /**
+     * Moves the monster in {@code slot} by ({@code dx}, {@code dy}).
+     */
+    public void move(int slot, float dx, float dy) {
+        x[slot] += dx;
+        y[slot] += dy;
+        grid.move(slot, x[slot], y[slot]);
+    }
+
+    /**
+     * Remembers the current positions so rendering can interpolate from them. Called at the start of every tick.
+     */
+    public void storePositions() {
+        for (int i = 0; i < size; i++) {
+            int slot = active[i];
+            lastX[slot] = x[slot];
+            lastY[slot] = y[slot];
+        }
+    }
+
+    /**
+     * Moves every monster, lets them hit the player and drops the dead ones.
+     * @param delta The length of the tick in seconds.
+     */
+    public void update(float delta) {
+        AbstractSurvivorPlayer player = SurvivorDungeon.player;
+        Rectangle target = player.hitbox.getBoundingRectangle();
+
+        // Backwards, so removing a monster only ever moves one we've already handled
+        for (int i = size - 1; i >= 0; i--) {
+            int slot = active[i];
+            HordeArchetype type = HordeArchetype.get(archetype[slot]);
+
+            if ((flags[slot] & FLAG_DEAD) != 0) {
+                PickupPool.spawn(x[slot], y[slot], AbstractPickup.PickupType.XP, type.xpCompression, true);
+                remove(slot);
+                continue;
+            }
+
+            type.update(this, slot, delta);
+            grid.move(slot, x[slot], y[slot]);
+            if (cooldown[slot] > 0) cooldown[slot] -= delta;
+            if (flash[slot] > 0) flash[slot] -= delta;
+
+            if (cooldown[slot] <= 0
+                    && Math.abs(x[slot] - (target.x + target.width/2f)) <= type.halfWidth + target.width/2f
+                    && Math.abs(y[slot] - (target.y + target.height/2f)) <= type.halfHeight + target.height/2f) {
+                player.damage(null, type.collisionWeapon);
+                cooldown[slot] = type.attackDelay;
+            }
+        }
+    }
+
+    /**
+     * Damages the monster in {@code slot} with {@code weapon} in the hands of the player, rolling crits like
+     * {@link AbstractSurvivorMonster#damage(SpireSurvivors.entity.AbstractSurvivorEntity, AbstractSurvivorWeapon) AbstractSurvivorMonster.damage()}.
+     * The monster is dropped on the next {@link HordePool#update(float) update()} if this kills it.
+     */
+    public void damage(int slot, AbstractSurvivorWeapon weapon) {
+        if ((flags[slot] & FLAG_DEAD) != 0) return;
+        HordeArchetype type = HordeArchetype.get(archetype[slot]);
+        AbstractSurvivorPlayer player = SurvivorDungeon.player;
+
+        float damage = weapon.damage * player.damageModifier;
+        int crits = 0;
+        float chance = player.critChance;
+        while (chance >= 1) {
+            crits++;
+            chance--;
+        }
+        if (AbstractDungeon.cardRandomRng.random() < chance) {
+            crits++;
+        }
+        damage *= 1 + crits * (player.critDamage - 1);
+
+        for (AbstractPower p : player.basePlayer.powers) {
+            damage = p.atDamageGive(damage, DamageInfo.DamageType.NORMAL);
+        }
+        for (AbstractPower p : player.basePlayer.powers) {
+            damage = p.atDamageFinalGive(damage, DamageInfo.DamageType.NORMAL);
+        }
+
+        flash[slot] = FLASH_TIME;
+        hp[slot] -= damage;
+        SurvivorDungeon.effectsQueue.add(new DamageNumberEffect(type.monster, x[slot], y[slot], (int)damage));
+        if (hp[slot] <= 0) {
+            hp[slot] = 0;
+            flags[slot] |= FLAG_DEAD;
+        }
+    }
+
+    /**
+     * Damages every living monster whose hitbox collides with {@code hitbox} and isn't in {@code hits} yet.
+     * @param hitbox The polygon to check against.
+     * @param hits {@link HordePool#handle(int) Handles} of monsters that were already hit. Newly hit monsters are added to it.
+     * @param weapon The weapon to damage the monsters with.
+     */
+    public void strike(Polygon hitbox, IntSet hits, AbstractSurvivorWeapon weapon) {
+        if (size == 0) return;
+        Rectangle area = hitbox.getBoundingRectangle();
+        int minX = grid.cell(area.x - HordeArchetype.maxHalfWidth());
+        int maxX = grid.cell(area.x + area.width + HordeArchetype.maxHalfWidth());
+        int minY = grid.cell(area.y - HordeArchetype.maxHalfHeight());
+        int maxY = grid.cell(area.y + area.height + HordeArchetype.maxHalfHeight());
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                for (int slot = grid.head(SlotGrid.key(cx, cy)); slot != SlotGrid.NONE; slot = grid.next(slot)) {
+                    if ((flags[slot] & FLAG_DEAD) != 0) continue;
+                    int handle = handle(slot);
+                    if (hits.contains(handle) || !collides(hitbox, slot)) continue;
+                    hits.add(handle);
+                    damage(slot, weapon);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Whether the hitbox of the monster in {@code slot} collides with {@code hitbox}.
+     */
+    public boolean collides(Polygon hitbox, int slot) {
+        HordeArchetype type = HordeArchetype.get(archetype[slot]);
+        float left = x[slot] - type.halfWidth, right = x[slot] + type.halfWidth;
+        float bottom = y[slot] - type.halfHeight, top = y[slot] + type.halfHeight;
+        if (!hitbox.getBoundingRectangle().overlaps(bounds.set(left, bottom, right - left, top - bottom))) return false;
+
+        float[] vertices = box.getVertices();
+        vertices[0] = left;  vertices[1] = bottom;
+        vertices[2] = right; vertices[3] = bottom;
+        vertices[4] = right; vertices[5] = top;
+        vertices[6] = left;  vertices[7] = top;
+        box.dirty();
+        return PolygonHelper.collides(hitbox, box);
+    }
+
+    /**
+     * Moves the animations of all monsters along. Called once per frame by {@link RenderQueue} before it draws them
+     * through {@link HordePool#renderSlot(SpriteBatch, int, float) renderSlot()}.
+     */
+    public void advanceAnimation(float delta) {
+        animationTime += delta;
+    }
+
+    /**
+     * Renders the monster in {@code slot} {@code alpha} of the way between its position at the start of the last tick and its current one.<br>
+     * {@link RenderQueue} calls this for each monster in depth order, mixed in with everything else in the world.
+     * Changes the color of {@code sb}, and doesn't set it back.
+     */
+    public void renderSlot(SpriteBatch sb, int slot, float alpha) {
+        HordeArchetype type = HordeArchetype.get(archetype[slot]);
+        if (type.animation == null) return;
+
+        // Offset by slot, so a horde doesn't walk in lockstep
+        TextureRegion frame = type.animation.frame(true, animationTime + slot * 0.37f);
+        float width = frame.getRegionWidth();
+        float height = frame.getRegionHeight();
+        float drawX = MathUtils.lerp(lastX[slot], x[slot], alpha) - type.animation.originX;
+        float drawY = MathUtils.lerp(lastY[slot], y[slot], alpha) - type.halfHeight - type.animation.originY;
+
+        sb.setColor(flash[slot] > 0 ? AbstractSurvivorMonster.DAMAGE_TAKEN_COLOR : Color.WHITE);
+        // Face the player, the same way monsters flip towards them
+        if (SurvivorDungeon.player.basePlayer.hb.cX > x[slot]) {
+            sb.draw(frame, drawX + width, drawY, -width, height);
+        } else {
+            sb.draw(frame, drawX, drawY, width, height);
+        }
+    }
+
+    /**
+     * Removes every monster.
+     */
+    public void clear() {
+        size = 0;
+        freeCount = CAPACITY;
+        // Hand out low slots first
+        for (int i = 0; i < CAPACITY; i++) {
+            free[i] = CAPACITY - 1 - i;
+        }
+        grid.clear();
+    }
+}
@@ -10,11 +10,16 @@ public class BasicMonster extends AbstractSurvivorMonster {
         super(m, 10, 3f);
     }
 
+    public BasicMonster(MonsterArchetype type, AbstractMonster m) {
+        super(m, type.collisionDamage, type.speed);
+    }
+
     @Override
     public void movementUpdate() {
         Vector2 dir = new Vector2(SurvivorDungeon.player.basePlayer.hb.cX - monster.hb.cX, SurvivorDungeon.player.basePlayer.hb.cY  - SurvivorDungeon.player.basePlayer.hb.height/2f- monster.hb.cY);
+        SurvivorDungeon.flowField.steer(monster.hb.cX, monster.hb.cY, dir);
         dir.nor();
-        dir.scl(speed);
+        dir.scl(speed * tickScale);
         move(dir.x, dir.y);
     }
 }
@@ -0,0 +1,136 @@
+package SpireSurvivors.monsters;
+
+import SpireSurvivors.entity.AbstractSurvivorMonster;
+import SpireSurvivors.patches.CardCrawlGamePatches;
+import SpireSurvivors.util.AnimationBaker;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.SkeletonJson;
+import com.megacrit.cardcrawl.monsters.AbstractMonster;
+import com.megacrit.cardcrawl.monsters.exordium.LouseNormal;
+
+import java.util.HashMap;
+
+/**
+ * Everything {@link AbstractSurvivorMonster}s of one kind share, built once instead of for every spawn.<br>
+ * Each monster still owns a game monster for its health, powers and animation state, but the heavy parts of it,
+ * the texture atlas and the parsed skeleton, come from the shared caches here while the survivor game is running.
+ * Those are loaded the first time any monster asks for them, through {@link SpireSurvivors.patches.CreaturePatches.SharedAnimations SharedAnimations},
+ * so every later spawn only has to build a skeleton instance on top of them.
+ * <p>
+ * Like {@link SpireSurvivors.horde.HordeArchetype HordeArchetype}, archetypes have to be {@link MonsterArchetype#register(MonsterArchetype) registered}.
+ */
+public class MonsterArchetype {
+    /**
+     * Creates the game monster of a new spawn at the given screen offset.
+     */
+    public interface Factory {
+        AbstractMonster create(float offsetX, float offsetY);
+    }
+
+    private static final HashMap<String, MonsterArchetype> archetypes = new HashMap<>();
+    /**
+     * Atlases by file path, and skeletons by file path and scale
+     */
+    private static final HashMap<String, TextureAtlas> atlases = new HashMap<>();
+    private static final HashMap<String, SkeletonData> skeletons = new HashMap<>();
+
+    public static final MonsterArchetype LOUSE = register(new MonsterArchetype("Louse", LouseNormal::new, 10, 3f));
+
+    public final String id;
+    public final int collisionDamage;
+    /**
+     * Movement speed in units per tick
+     */
+    public final float speed;
+    private final Factory factory;
+    private boolean prepared = false;
+
+    public MonsterArchetype(String id, Factory factory, int collisionDamage, float speed) {
+        this.id = id;
+        this.factory = factory;
+        this.collisionDamage = collisionDamage;
+        this.speed = speed;
+    }
+
+    /**
+     * Makes {@code archetype} available through {@link MonsterArchetype#get(String) get()}.
+     * @return {@code archetype}.
+     */
+    public static <T extends MonsterArchetype> T register(T archetype) {
+        MonsterArchetype old = archetypes.putIfAbsent(archetype.id, archetype);
+        if (old != null && old != archetype) {
+            throw new IllegalArgumentException("MonsterArchetype id " + archetype.id + " is already registered");
+        }
+        return archetype;
+    }
+
+    /**
+     * @return The archetype registered under {@code id}, or {@code null} if there is none.
+     */
+    public static MonsterArchetype get(String id) {
+        return archetypes.get(id);
+    }
+
+    /**
+     * Loads the archetype's atlas and skeleton and bakes its animation, if that hasn't happened yet,
+     * so the first wave doesn't have to. Has to happen outside of rendering.
+     */
+    public void prepare() {
+        if (prepared) return;
+        prepared = true;
+        AbstractMonster model = factory.create(0, 0);
+        if (AnimationBaker.isBaked(model.getClass())) {
+            AnimationBaker.bake(model);
+        }
+    }
+
+    /**
+     * Creates a new monster of this archetype. Has to happen outside of rendering.
+     * @param offsetX Where to spawn the monster, relative to the screen like any game monster's offset.
+     * @param offsetY Where to spawn the monster, relative to the screen like any game monster's offset.
+     * @return The new monster. It isn't added to the dungeon.
+     */
+    public AbstractSurvivorMonster spawn(float offsetX, float offsetY) {
+        prepare();
+        return new BasicMonster(this, factory.create(offsetX, offsetY));
+    }
+
+    /**
+     * @return Whether game monsters are currently built from the shared caches.
+     */
+    public static boolean sharing() {
+        return CardCrawlGamePatches.survivorGame != null || CardCrawlGamePatches.loadSurvivorMode;
+    }
+
+    /**
+     * Stands in for creating a {@link TextureAtlas} while loading a creature's animation.
+     * @return The atlas at {@code file}, loaded only once while {@link MonsterArchetype#sharing() sharing}.
+     */
+    public static TextureAtlas atlas(FileHandle file) {
+        if (!sharing()) return new TextureAtlas(file);
+        TextureAtlas atlas = atlases.get(file.path());
+        if (atlas == null) {
+            atlas = new TextureAtlas(file);
+            atlases.put(file.path(), atlas);
+        }
+        return atlas;
+    }
+
+    /**
+     * Stands in for {@link SkeletonJson#readSkeletonData(FileHandle)} while loading a creature's animation.
+     * Skeletons never change the data they're built from, so it can be shared by every skeleton built from the same files and scale.
+     * @return The skeleton at {@code file}, parsed only once per scale while {@link MonsterArchetype#sharing() sharing}.
+     */
+    public static SkeletonData skeletonData(SkeletonJson json, FileHandle file) {
+        if (!sharing()) return json.readSkeletonData(file);
+        String key = file.path() + "@" + json.getScale();
+        SkeletonData data = skeletons.get(key);
+        if (data == null) {
+            data = json.readSkeletonData(file);
+            skeletons.put(key, data);
+        }
+        return data;
+    }
+}
@@ -1,10 +1,18 @@
 package SpireSurvivors.patches;
 
+import SpireSurvivors.monsters.MonsterArchetype;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.esotericsoftware.spine.SkeletonJson;
 import com.evacipated.cardcrawl.modthespire.lib.ByRef;
+import com.evacipated.cardcrawl.modthespire.lib.SpireInstrumentPatch;
 import com.evacipated.cardcrawl.modthespire.lib.SpirePatch;
 import com.evacipated.cardcrawl.modthespire.lib.SpirePatch2;
 import com.evacipated.cardcrawl.modthespire.lib.SpirePrefixPatch;
 import com.megacrit.cardcrawl.core.AbstractCreature;
+import javassist.CannotCompileException;
+import javassist.expr.ExprEditor;
+import javassist.expr.MethodCall;
+import javassist.expr.NewExpr;
 
 public class CreaturePatches {
     @SpirePatch2(clz = AbstractCreature.class, method = "loadAnimation")
@@ -17,6 +25,32 @@ public class CreaturePatches {
         }
     }
 
+    /**
+     * Loads every atlas and skeleton only once while in survivor mode, instead of for every monster that spawns.
+     * @see MonsterArchetype
+     */
+    @SpirePatch2(clz = AbstractCreature.class, method = "loadAnimation")
+    public static class SharedAnimations {
+        @SpireInstrumentPatch
+        public static ExprEditor patch() {
+            return new ExprEditor() {
+                @Override
+                public void edit(NewExpr e) throws CannotCompileException {
+                    if (e.getClassName().equals(TextureAtlas.class.getName())) {
+                        e.replace("$_ = SpireSurvivors.monsters.MonsterArchetype.atlas($1);");
+                    }
+                }
+
+                @Override
+                public void edit(MethodCall m) throws CannotCompileException {
+                    if (m.getClassName().equals(SkeletonJson.class.getName()) && m.getMethodName().equals("readSkeletonData")) {
+                        m.replace("$_ = SpireSurvivors.monsters.MonsterArchetype.skeletonData($0, $1);");
+                    }
+                }
+            };
+        }
+    }
+
     @SpirePatch2(clz = AbstractCreature.class, method = SpirePatch.CONSTRUCTOR)
     public static class FixPrivateFields {
 
@@ -1,13 +1,13 @@
 package SpireSurvivors.pickups;
 
 import SpireSurvivors.dungeon.SurvivorDungeon;
+import SpireSurvivors.entity.AbstractSurvivorPlayer;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Defines pickup behavior, constants, and fields for managed initialization
@@ -21,15 +21,22 @@ public class AbstractPickup {
      */
     public final static int COMPRESSION_FACTOR = 3;
     /**
-     * Compression will attempt to find enough items within {@code COMPRESSION_RANGE} radius
+     * Pickups can be scattered within {@code SCATTER_RANGE} radius on spawn.
      */
-    public final static float COMPRESSION_RANGE = 30f;
+    public final static float SCATTER_RANGE = 30f;
     /**
-     * Compression may compress additional pickups and spawn them within {@code SCATTER_RANGE} radius
-     * of the original pickup the compression targeted.<br>
-     * Can also be used to scatter pickups on spawn.
+     * Compression levels from {@code COLOR_TIERS - 1} onward share the same color.
      */
-    public final static float SCATTER_RANGE = 30f;
+    public final static int COLOR_TIERS = 32;
+    /**
+     * Pickups start being pulled at {@code PULL_VELOCITY} units per second.<br>
+     * Equal to {@link AbstractSurvivorPlayer#PICKUP_PULL_SPEED PICKUP_PULL_SPEED} per tick at 60 ticks per second.
+     */
+    public final static float PULL_VELOCITY = AbstractSurvivorPlayer.PICKUP_PULL_SPEED * 60f;
+    /**
+     * Pulled pickups speed up by {@code PULL_ACCELERATION} units per second every second, doubling their speed every 2 seconds.
+     */
+    public final static float PULL_ACCELERATION = PULL_VELOCITY / 2f;
     /**
      * Pickups that are being pulled will be rotated by up to {@code PULL_ROTATION} degrees towards the player.
      */
@@ -62,28 +69,62 @@ public class AbstractPickup {
      * @param compression The compression to base the color off of
      */
     public static void setColorForCompression(SpriteBatch sb, int compression) {
-        int plus = (compression/8 * 20)/255;
-        switch (compression % 8) {
-            case 0: sb.setColor(Color.YELLOW.cpy().add(plus, plus, plus, 0)); break;
-            case 1: sb.setColor(Color.ORANGE.cpy().add(plus, plus, plus, 0)); break;
-            case 2: sb.setColor(Color.RED.cpy().add(plus, plus, plus, 0)); break;
-            case 3: sb.setColor(Color.MAGENTA.cpy().add(plus, plus, plus, 0)); break;
-            case 4: sb.setColor(Color.PURPLE.cpy().add(plus, plus, plus, 0)); break;
-            case 5: sb.setColor(Color.BLUE.cpy().add(plus, plus, plus, 0)); break;
-            case 6: sb.setColor(Color.CYAN.cpy().add(plus, plus, plus, 0)); break;
-            case 7: sb.setColor(Color.GREEN.cpy().add(plus, plus, plus, 0)); break;
+        sb.setColor(colorForCompression(compression));
+    }
+
+    /**
+     * The color of each compression level, see {@link AbstractPickup#setColorForCompression(SpriteBatch, int) setColorForCompression()}.<br>
+     * Built once, since pickups are drawn in the thousands.
+     */
+    private static final Color[] COMPRESSION_COLORS = new Color[COLOR_TIERS];
+    private static final float[] COMPRESSION_COLOR_BITS = new float[COMPRESSION_COLORS.length];
+    static {
+        Color[] base = {Color.YELLOW, Color.ORANGE, Color.RED, Color.MAGENTA, Color.PURPLE, Color.BLUE, Color.CYAN, Color.GREEN};
+        for (int i = 0; i < COMPRESSION_COLORS.length; i++) {
+            float plus = (i/base.length * 20)/255f;
+            COMPRESSION_COLORS[i] = base[i % base.length].cpy().add(plus, plus, plus, 0);
+            COMPRESSION_COLOR_BITS[i] = COMPRESSION_COLORS[i].toFloatBits();
         }
     }
 
     /**
-     * Defines different types of enums, including behavior and type-dependant properties like {@code image} and default {@code flags}.
+     * @return The color for {@code compression}. Shared, so don't modify it.
+     */
+    public static Color colorForCompression(int compression) {
+        return COMPRESSION_COLORS[Math.min(compression, COMPRESSION_COLORS.length - 1)];
+    }
+
+    /**
+     * @return The color for {@code compression}, packed for use in vertex data.
      */
-    public enum PickupType implements PickupBehavior {
-        XP(1, IMAGE_XP, 10f, 4f, true, 0) {
+    public static float colorBitsForCompression(int compression) {
+        return COMPRESSION_COLOR_BITS[Math.min(compression, COMPRESSION_COLOR_BITS.length - 1)];
+    }
+
+    /**
+     * Defines different types of pickups, including behavior and type-dependant properties like {@code image} and default {@code flags}.<br>
+     * Types are looked up by id through a dense table, so every type has to be {@link PickupType#register(PickupType) registered}
+     * before pickups of it are spawned. Other mods can register their own types the same way.
+     */
+    public static class PickupType implements PickupBehavior {
+        /**
+         * All registered types, indexed by id
+         */
+        private static PickupType[] types = new PickupType[8];
+
+        public static final PickupType XP = register(new PickupType(1, IMAGE_XP, 10f, 4f, true, 0) {
             public void onCollect(long address) {
                 SurvivorDungeon.player.gainXP(PickupStruct.value(address));
             }
-        };
+
+            public boolean collectsInBulk() {
+                return true;
+            }
+
+            public void onCollectAll(long value, int count) {
+                SurvivorDungeon.player.gainXP((int)Math.min(value, Integer.MAX_VALUE));
+            }
+        });
 
         public final int id;
         public final TextureRegion image;
@@ -92,21 +133,12 @@ public class AbstractPickup {
         public final boolean compressable;
         public final int flags;
 
-        static final Map<Integer, PickupType> map = new HashMap<>();
-
-        PickupType(int id, Texture texture, float bobDistance, float bobSpeed, boolean compressable, int flags) {
-            if (id == 0) throw new IllegalArgumentException("PickupType id cannot be 0");
-            this.id = id;
-            this.bobDistance = bobDistance;
-            this.bobSpeed = bobSpeed;
-            this.compressable = compressable;
-            this.flags = flags;
-
-            this.image = new TextureRegion(texture);
+        public PickupType(int id, Texture texture, float bobDistance, float bobSpeed, boolean compressable, int flags) {
+            this(id, new TextureRegion(texture), bobDistance, bobSpeed, compressable, flags);
         }
 
-        PickupType(int id, TextureRegion region, float bobDistance, float bobSpeed, boolean compressable, int flags) {
-            if (id == 0) throw new IllegalArgumentException("PickupType id cannot be 0");
+        public PickupType(int id, TextureRegion region, float bobDistance, float bobSpeed, boolean compressable, int flags) {
+            if (id <= 0) throw new IllegalArgumentException("PickupType id must be positive");
             this.id = id;
             this.bobDistance = bobDistance;
             this.bobSpeed = bobSpeed;
@@ -116,14 +148,28 @@ public class AbstractPickup {
             this.image = region;
         }
 
-        static {
-            for (PickupType type : PickupType.values()) {
-                map.put(type.id, type);
+        /**
+         * Makes {@code type} available to pickup pools. Ids should be kept small, since the lookup table is as big as the largest id.
+         * @param type The type to register.
+         * @return {@code type}.
+         */
+        public static <T extends PickupType> T register(T type) {
+            if (type.id >= types.length) {
+                types = Arrays.copyOf(types, Math.max(types.length * 2, type.id + 1));
+            }
+            if (types[type.id] != null && types[type.id] != type) {
+                throw new IllegalArgumentException("PickupType id " + type.id + " is already registered");
             }
+            types[type.id] = type;
+            return type;
         }
 
+        /**
+         * @return The type registered under {@code id}, or {@code null} if there is none.
+         */
         public static PickupType deserialize(int id) {
-            return map.get(id);
+            PickupType[] t = types;
+            return id >= 0 && id < t.length ? t[id] : null;
         }
 
         public static int serialize(PickupType type) {
@@ -0,0 +1,215 @@
+package SpireSurvivors.pickups;
+
+import SpireSurvivors.SpireSurvivorsMod;
+import basemod.ReflectionHacks;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.LongMap;
+import sun.misc.Unsafe;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * Hands out fixed size pages of off-heap memory to {@link PickupPool}s.<br>
+ * Pages that are given back are kept for reuse, up to {@link PickupArena#maxSparePages maxSparePages} of them.
+ * Everything the arena holds is freed by {@link PickupArena#dispose() dispose()}, except direct buffers on JVMs without
+ * {@code Unsafe.invokeCleaner()}, which are only dropped there and left to the garbage collector.
+ */
+public class PickupArena {
+    /**
+     * Where the memory of the pages comes from.
+     */
+    public enum Backing {
+        /**
+         * {@code Unsafe.allocateMemory()}
+         */
+        UNSAFE,
+        /**
+         * {@link ByteBuffer#allocateDirect(int) ByteBuffer.allocateDirect()}, freed through its cleaner where the JVM offers
+         * {@code Unsafe.invokeCleaner()}, and by the garbage collector otherwise
+         */
+        DIRECT_BUFFER
+    }
+
+    private static final Unsafe unsafe = ReflectionHacks.getPrivateStatic(Unsafe.class, "theUnsafe");
+    /**
+     * Where {@link Buffer} keeps the address of a direct buffer's memory
+     */
+    private static final long BUFFER_ADDRESS;
+    /**
+     * {@code Unsafe.invokeCleaner(ByteBuffer)}, or {@code null} on JVMs that don't have it
+     */
+    private static final MethodHandle INVOKE_CLEANER;
+    static {
+        try {
+            BUFFER_ADDRESS = unsafe.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+        } catch (NoSuchFieldException e) {
+            throw new RuntimeException(e);
+        }
+        MethodHandle invokeCleaner;
+        try {
+            invokeCleaner = MethodHandles.lookup().findVirtual(Unsafe.class, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class)).bindTo(unsafe);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            invokeCleaner = null;
+        }
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    /**
+     * All arenas that haven't been disposed yet
+     */
+    private static final ArrayList<PickupArena> allocated = new ArrayList<>();
+
+    public final Backing backing;
+    /**
+     * The size of a single page in bytes
+     */
+    public final int pageSize;
+    /**
+     * How many released pages are kept around instead of being freed
+     */
+    public int maxSparePages = 2;
+
+    /**
+     * Every page the arena holds, in use or not
+     */
+    private final LongArray pages = new LongArray();
+    private final LongArray sparePages = new LongArray();
+    /**
+     * The buffer behind each page, so it stays reachable until we free it. Only used by {@link Backing#DIRECT_BUFFER}.
+     */
+    private final LongMap<ByteBuffer> buffers = new LongMap<>();
+    private int peakPages = 0;
+    private boolean disposed = false;
+
+    public PickupArena(int pageSize, Backing backing) {
+        this.pageSize = pageSize;
+        this.backing = backing;
+        allocated.add(this);
+    }
+
+    /**
+     * @return The backing picked in the mod config.
+     */
+    public static Backing configuredBacking() {
+        return SpireSurvivorsMod.directPickupBuffers ? Backing.DIRECT_BUFFER : Backing.UNSAFE;
+    }
+
+    /**
+     * Hands out a page, reusing a spare one if there is any.<br>
+     * The contents of the page are undefined.
+     * @return A pointer to the start of the page.
+     */
+    public long acquire() {
+        if (disposed) throw new IllegalStateException("Pickup arena was already disposed");
+        if (sparePages.size > 0) return sparePages.pop();
+
+        long page;
+        if (backing == Backing.DIRECT_BUFFER) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(pageSize);
+            page = unsafe.getLong(buffer, BUFFER_ADDRESS);
+            buffers.put(page, buffer);
+        } else {
+            page = PickupStruct.allocMany(pageSize / PickupStruct.SIZE);
+        }
+        pages.add(page);
+        peakPages = Math.max(peakPages, pages.size);
+        return page;
+    }
+
+    /**
+     * Gives a page back to the arena. It may not be used afterwards.
+     * @param page A pointer to a page from {@link PickupArena#acquire() acquire()}.
+     */
+    public void release(long page) {
+        if (disposed) return; // Already freed along with everything else
+        if (!pages.contains(page) || sparePages.contains(page)) {
+            throw new IllegalArgumentException("Page " + Long.toHexString(page) + " isn't in use by this arena");
+        }
+        if (sparePages.size < maxSparePages) {
+            sparePages.add(page);
+        } else {
+            pages.removeValue(page);
+            freePage(page);
+        }
+    }
+
+    /**
+     * Frees every page, whether it's still in use or not. The arena can't be used afterwards.
+     */
+    public void dispose() {
+        if (disposed) return;
+        for (int i = 0; i < pages.size; i++) {
+            freePage(pages.get(i));
+        }
+        pages.clear();
+        sparePages.clear();
+        disposed = true;
+        allocated.remove(this);
+    }
+
+    private void freePage(long page) {
+        if (backing == Backing.DIRECT_BUFFER) {
+            ByteBuffer buffer = buffers.remove(page);
+            if (INVOKE_CLEANER != null) {
+                try {
+                    INVOKE_CLEANER.invokeExact(buffer);
+                } catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            // Otherwise the buffer is freed once the garbage collector finds it unreachable
+        } else {
+            PickupStruct.free(page);
+        }
+    }
+
+    /**
+     * @return The amount of pages the arena holds, including spare ones.
+     */
+    public int pages() {
+        return pages.size;
+    }
+
+    /**
+     * @return The amount of pages currently handed out.
+     */
+    public int pagesInUse() {
+        return pages.size - sparePages.size;
+    }
+
+    /**
+     * @return The most pages the arena has held at once.
+     */
+    public int peakPages() {
+        return peakPages;
+    }
+
+    /**
+     * @return The amount of off-heap memory the arena holds, in bytes.
+     */
+    public long bytes() {
+        return (long)pages.size * pageSize;
+    }
+
+    @Override
+    public String toString() {
+        return "Pickup arena: " + pagesInUse() + "/" + pages() + " pages, "
+                + bytes() / 1024 + " KB (peak " + (long)peakPages * pageSize / 1024 + " KB, " + backing + ")";
+    }
+
+    /**
+     * Logs an error for every arena that hasn't been disposed.
+     * @return The amount of arenas that are still allocated.
+     */
+    public static int checkLeaks() {
+        for (PickupArena arena : allocated) {
+            SpireSurvivorsMod.logger.error("Leaked " + arena);
+        }
+        return allocated.size();
+    }
+}
@@ -1,9 +1,5 @@
 package SpireSurvivors.pickups;
 
-import SpireSurvivors.dungeon.SurvivorDungeon;
-import SpireSurvivors.entity.AbstractSurvivorPlayer;
-import com.badlogic.gdx.math.Vector2;
-
 /**
  * Defines default behavior for pickup types.
  */
@@ -15,11 +11,27 @@ public interface PickupBehavior {
     default void onTouch(long address) { }
 
     /**
-     * Called when the pickup is collected. After this resolves, the pickup will be removed.
+     * Called when the pickup is collected. After this resolves, the pickup will be removed.<br>
+     * When {@link PickupPool#collectAll(boolean) collected in bulk} without flying, it's already been removed, but its fields can still be read.
      * @param address A pointer to an instance of {@link PickupStruct}.
      */
     default void onCollect(long address) { }
 
+    /**
+     * Whether {@link PickupPool#collectAll(boolean) bulk collection} should call
+     * {@link PickupBehavior#onCollectAll(long, int) onCollectAll()} once instead of {@link PickupBehavior#onCollect(long) onCollect()} per pickup.
+     */
+    default boolean collectsInBulk() {
+        return false;
+    }
+
+    /**
+     * Called once per type when pickups are collected in bulk, if {@link PickupBehavior#collectsInBulk() collectsInBulk()}.
+     * @param value The summed {@link PickupStruct#value(long) value} of all collected pickups of this type.
+     * @param count The amount of collected pickups of this type.
+     */
+    default void onCollectAll(long value, int count) { }
+
     /**
      * Called while the pickup is within the player's pickup collection range.
      * @param address A pointer to an instance of {@link PickupStruct}.
@@ -41,21 +53,38 @@ public interface PickupBehavior {
     }
 
     /**
-     * Called while the pickup is in the player's pickup pull range and the pickup's {@code NO_PULL} flag isn't set.<br>
-     * The first frame the pickup started being pulled, the {@code BEING_PULLED} flag will be false.<br>
-     * The timer of the struct will also not be reset to 0.
-     * @param address A pointer to an instance of {@link PickupStruct}.
+     * Called once per tick with all pickups of this type that are in the player's pickup pull range
+     * and don't have the {@code NO_PULL} flag set, found in {@code addresses[offset, offset + count)}.<br>
+     * The first tick a pickup started being pulled, its {@code BEING_PULLED} flag will be false.
+     * Otherwise its timer holds how long it's been pulled for. Both are updated after this.<br>
+     * Don't remove pickups from here.
+     * @param addresses Pointers to instances of {@link PickupStruct}.
+     * @param offset The index of the first pickup to pull.
+     * @param count The amount of pickups to pull.
+     * @param targetX The x coordinate to pull towards.
+     * @param targetY The y coordinate to pull towards.
+     * @param delta The length of the tick in seconds.
      */
-    default void pull(long address) {
-        // By default, pull directly towards the player at the player's pull speed + bonus from pull time
-        float dx = SurvivorDungeon.player.basePlayer.hb.cX - PickupStruct.x(address);
-        float dy = SurvivorDungeon.player.basePlayer.hb.cY - PickupStruct.y(address);
-        // Double speed every 2s
-        float pullTime = PickupStruct.beingPulled(address) ? PickupStruct.timer(address) : 0;
-        float pullTimeBonus = AbstractSurvivorPlayer.PICKUP_PULL_SPEED * pullTime / 2f;
-
-        Vector2 distance = new Vector2(dx, dy).nor().scl(AbstractSurvivorPlayer.PICKUP_PULL_SPEED + pullTimeBonus);
-        PickupStruct.x(address, PickupStruct.x(address) + distance.x);
-        PickupStruct.y(address, PickupStruct.y(address) + distance.y);
+    default void pullAll(long[] addresses, int offset, int count, float targetX, float targetY, float delta) {
+        // By default, pull directly towards the target, starting at PULL_VELOCITY and speeding up by PULL_ACCELERATION
+        float accelerationStep = AbstractPickup.PULL_ACCELERATION * delta;
+        for (int i = offset; i < offset + count; i++) {
+            long address = addresses[i];
+            float x = PickupStruct.x(address);
+            float y = PickupStruct.y(address);
+            float dx = targetX - x;
+            float dy = targetY - y;
+            float distance = (float)Math.sqrt(dx*dx + dy*dy);
+            if (distance == 0) continue;
+
+            float pullTime = PickupStruct.beingPulled(address) ? PickupStruct.timer(address) : 0;
+            float velocity = AbstractPickup.PULL_VELOCITY + AbstractPickup.PULL_ACCELERATION * pullTime;
+            float step = (velocity + accelerationStep/2f) * delta;
+            // Don't fly past the target
+            if (step > distance) step = distance;
+
+            PickupStruct.x(address, x + dx/distance * step);
+            PickupStruct.y(address, y + dy/distance * step);
+        }
     }
 }
@@ -0,0 +1,185 @@
+package SpireSurvivors.pickups;
+
+import SpireSurvivors.pickups.AbstractPickup.PickupType;
+import SpireSurvivors.util.SlotGrid;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntSet;
+import com.badlogic.gdx.utils.LongArray;
+
+import static SpireSurvivors.dungeon.SurvivorDungeon.pickupPools;
+
+/**
+ * Merges pickups of the same type and compression level that share a grid cell
+ * into pickups of the next compression level, across all pools.<br>
+ * Work is split into cells and limited by {@link PickupCompressor#budget budget} per update,
+ * so a mass kill never compresses everything at once. Whatever isn't done continues on the next update.
+ * Cells that just had something spawned in them are handled before the regular sweep over all cells.
+ */
+public class PickupCompressor {
+    /**
+     * The amount of pickups merged into one
+     */
+    public static final int GROUP_SIZE = 1 << AbstractPickup.COMPRESSION_FACTOR;
+    /**
+     * The highest compression level a merge can produce, so {@link AbstractPickup#value(int) value()} still fits an int
+     */
+    public static final int MAX_COMPRESSION = (Integer.SIZE - 2) / AbstractPickup.COMPRESSION_FACTOR;
+    /**
+     * Flags of pickups that are left alone
+     */
+    private static final int SKIP_FLAGS = PickupStruct.FLAG_BEING_PULLED | PickupStruct.FLAG_PERSISTENT | PickupStruct.FLAG_COLLECTED;
+    // Bits of a group key, see compressCell()
+    private static final int INDEX_BITS = 20;
+    private static final int COMPRESSION_BITS = 20;
+
+    /**
+     * How long a single {@link PickupCompressor#update() update()} may run for, in nanoseconds
+     */
+    public long budget = 250_000L;
+
+    /**
+     * The cells of the current sweep and how far into them we are
+     */
+    private final IntArray sweep = new IntArray();
+    private int cursor = 0;
+    /**
+     * Cells that had pickups spawned in them since they were last compressed
+     */
+    private final IntSet dirty = new IntSet();
+    private final IntArray dirtyQueue = new IntArray();
+
+    // Scratch buffers for a single cell
+    private final LongArray cellPickups = new LongArray();
+    private final IntArray cellPools = new IntArray();
+    private final LongArray groups = new LongArray();
+
+    /**
+     * Makes the cell containing ({@code x}, {@code y}) get compressed before the rest.
+     */
+    public void markDirty(float x, float y) {
+        int key = SlotGrid.keyAt(x, y, PickupPool.GRID_CELL_SIZE);
+        if (!dirty.contains(key)) {
+            dirty.add(key);
+            dirtyQueue.add(key);
+        }
+    }
+
+    /**
+     * Forgets all progress. Should be called whenever the pools are cleared.
+     */
+    public void reset() {
+        sweep.clear();
+        cursor = 0;
+        dirty.clear();
+        dirtyQueue.clear();
+    }
+
+    /**
+     * Compresses cells until either there's nothing left to do or {@link PickupCompressor#budget budget} runs out.
+     */
+    public void update() {
+        long deadline = System.nanoTime() + budget;
+
+        while (dirtyQueue.size > 0) {
+            int key = dirtyQueue.pop();
+            dirty.remove(key);
+            compressCell(key);
+            if (System.nanoTime() >= deadline) return;
+        }
+
+        if (cursor >= sweep.size) {
+            startSweep();
+        }
+        while (cursor < sweep.size) {
+            compressCell(sweep.get(cursor++));
+            if (System.nanoTime() >= deadline) return;
+        }
+    }
+
+    /**
+     * Snapshots the occupied cells of all pools. Cells that empty out before we reach them are simply skipped.
+     */
+    private void startSweep() {
+        sweep.clear();
+        cursor = 0;
+        for (int i = 0; i < pickupPools.size(); i++) {
+            pickupPools.get(i).grid.collectCells(sweep);
+        }
+        // Pools share cells, so drop the duplicates
+        if (pickupPools.size() > 1) {
+            sweep.sort();
+            int n = 0;
+            for (int i = 0; i < sweep.size; i++) {
+                if (n == 0 || sweep.items[n - 1] != sweep.items[i]) {
+                    sweep.items[n++] = sweep.items[i];
+                }
+            }
+            sweep.size = n;
+        }
+    }
+
+    /**
+     * Merges every full group of pickups in the cell with the given packed key.
+     */
+    private void compressCell(int key) {
+        cellPickups.clear();
+        cellPools.clear();
+        for (int p = 0; p < pickupPools.size(); p++) {
+            int before = cellPickups.size;
+            pickupPools.get(p).collectCell(key, cellPickups);
+            for (int i = before; i < cellPickups.size; i++) {
+                cellPools.add(p);
+            }
+        }
+        if (cellPickups.size < GROUP_SIZE) return;
+
+        // Pack [type id | compression | index] into one long, so sorting puts each group in one run
+        groups.clear();
+        for (int i = 0; i < cellPickups.size; i++) {
+            long address = cellPickups.get(i);
+            PickupType type = PickupStruct.type(address);
+            int compression = PickupStruct.compression(address);
+            if (!type.compressable || compression >= MAX_COMPRESSION
+                    || (PickupStruct.flags(address) & SKIP_FLAGS) != 0) continue;
+            groups.add(((long)type.id << (COMPRESSION_BITS + INDEX_BITS))
+                    | ((long)compression << INDEX_BITS)
+                    | i);
+        }
+        if (groups.size < GROUP_SIZE) return;
+        groups.sort();
+
+        int start = 0;
+        while (start < groups.size) {
+            long group = groups.get(start) >>> INDEX_BITS;
+            int end = start + 1;
+            while (end < groups.size && groups.get(end) >>> INDEX_BITS == group) end++;
+            for (int i = start; i + GROUP_SIZE <= end; i += GROUP_SIZE) {
+                merge(i);
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Replaces the {@link PickupCompressor#GROUP_SIZE GROUP_SIZE} pickups starting at {@code groups[first]}
+     * with a single pickup of the next compression level at their center.
+     */
+    private void merge(int first) {
+        long firstAddress = cellPickups.get((int)(groups.get(first) & ((1 << INDEX_BITS) - 1)));
+        PickupType type = PickupStruct.type(firstAddress);
+        int compression = PickupStruct.compression(firstAddress);
+
+        float x = 0, y = 0;
+        for (int i = first; i < first + GROUP_SIZE; i++) {
+            int index = (int)(groups.get(i) & ((1 << INDEX_BITS) - 1));
+            long address = cellPickups.get(index);
+            x += PickupStruct.x(address);
+            y += PickupStruct.y(address);
+            // We know which pool each pickup came from, so there's no need to search for it
+            pickupPools.get(cellPools.get(index)).removeLocal(address);
+        }
+
+        // Marks the cell dirty again, so the new pickup can merge further
+        PickupPool.spawn(x / GROUP_SIZE, y / GROUP_SIZE, type, compression + 1, true);
+    }
+}
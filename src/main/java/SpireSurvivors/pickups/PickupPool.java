@@ -1,17 +1,23 @@
 package SpireSurvivors.pickups;
 
+import SpireSurvivors.SpireSurvivorsMod;
 import SpireSurvivors.dungeon.SurvivorDungeon;
 import SpireSurvivors.entity.AbstractSurvivorPlayer;
 import SpireSurvivors.pickups.AbstractPickup.PickupType;
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
+import SpireSurvivors.util.SlotGrid;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
-import com.megacrit.cardcrawl.core.Settings;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
 import java.util.function.Predicate;
 
 import static SpireSurvivors.dungeon.SurvivorDungeon.pickupPools;
@@ -22,10 +28,44 @@ import static SpireSurvivors.dungeon.SurvivorDungeon.pickupPools;
  * @see AbstractPickup
  */
 public class PickupPool {
+    /**
+     * How a pool lays out its pickups in memory.
+     */
+    public enum Layout {
+        /**
+         * Each pickup is one {@link PickupStruct#SIZE SIZE} byte record.
+         */
+        ARRAY_OF_STRUCTS,
+        /**
+         * Each field is its own array, so passes over a few fields only touch the memory they need.
+         */
+        STRUCT_OF_ARRAYS
+    }
+
     /**
      * The amount of pickups the pool can store.
      */
     public final static int POOL_SIZE = 1024;
+    /**
+     * Pools are merged once all their pickups would fit into one pool less at this occupancy.
+     */
+    public static float compactThreshold = 0.75f;
+    /**
+     * The width and height of the cells pickups are bucketed into
+     */
+    public final static float GRID_CELL_SIZE = 64f;
+    /**
+     * The layout used by pools created through {@link PickupPool#addPool() addPool()}
+     */
+    public static Layout defaultLayout = Layout.ARRAY_OF_STRUCTS;
+    /**
+     * How this pool lays out its pickups in memory
+     */
+    public final Layout layout;
+    /**
+     * The arena the pool's memory came from
+     */
+    private final PickupArena memory;
     /**
      * A pointer to the start of the pool
      */
@@ -34,40 +74,157 @@ public class PickupPool {
      * The amount of active pickups currently in the pool
      */
     private int usedPickups = 0;
+    /**
+     * The indices of all active slots, densely packed in {@code [0, usedPickups)}
+     */
+    private final int[] activeSlots = new int[POOL_SIZE];
+    /**
+     * For each active slot, its position in {@link PickupPool#activeSlots activeSlots}
+     */
+    private final int[] activePositions = new int[POOL_SIZE];
+    /**
+     * A stack of the indices of all inactive slots, {@code freeCount} deep
+     */
+    private final int[] freeSlots = new int[POOL_SIZE];
+    private int freeCount = POOL_SIZE;
+    /**
+     * Whether the pool is in {@link SurvivorDungeon#pickupPools pickupPools}
+     */
+    private boolean registered = false;
+    /**
+     * Whether the pool is in {@link PickupPool#openPools openPools}
+     */
+    private boolean open = false;
+    /**
+     * All pools in {@link SurvivorDungeon#pickupPools pickupPools} that have free slots
+     */
+    private static final ArrayList<PickupPool> openPools = new ArrayList<>(4);
+    /**
+     * The memory all pools live in. Created with the first pool and disposed by {@link PickupPool#clearPools() clearPools()}.
+     */
+    private static PickupArena arena;
+    /**
+     * Simulates pools in parallel. Created the first time it's needed and shut down by {@link PickupPool#clearPools() clearPools()}.
+     */
+    private static ForkJoinPool workers;
+    /**
+     * Draws the pickups of all pools
+     */
+    public static final PickupRenderer renderer = new PickupRenderer();
+    /**
+     * Merges pickups across all pools, a little every tick
+     */
+    public static final PickupCompressor compressor = new PickupCompressor();
+    /**
+     * Buckets the active slots of this pool by world cell, so proximity queries only touch nearby pickups
+     */
+    final SlotGrid grid = new SlotGrid(POOL_SIZE, GRID_CELL_SIZE);
+    /**
+     * Pickups found in collection range during the current update, handled by {@link PickupPool#commit() commit()}
+     */
+    private final long[] touched = new long[POOL_SIZE];
+    private int touchedCount = 0;
+    /**
+     * Pickups found in pull range during the current update
+     */
+    private final long[] pulled = new long[POOL_SIZE];
+    /**
+     * Squared distance of each slot to the player, filled at the start of every update
+     */
+    private final float[] distances = new float[POOL_SIZE];
+    /**
+     * Copies of the coordinates of each slot, used to compute {@code distances} in bulk. Only used by struct-of-arrays pools.
+     */
+    private final float[] xs, ys;
 
     public PickupPool() {
-        poolAddress = PickupStruct.allocMany(POOL_SIZE);
+        this(defaultLayout);
+    }
+
+    public PickupPool(Layout layout) {
+        this.layout = layout;
+        if (arena == null) arena = new PickupArena(PickupStruct.SIZE * POOL_SIZE, PickupArena.configuredBacking());
+        memory = arena;
+        poolAddress = memory.acquire();
+        if (layout == Layout.STRUCT_OF_ARRAYS) {
+            xs = new float[POOL_SIZE];
+            ys = new float[POOL_SIZE];
+        } else {
+            xs = ys = null;
+        }
 
         // We have to set everything to Inactive so we don't accidentally clog
-        long address = poolAddress;
-        for (int i = 0; i < POOL_SIZE; i++, address += PickupStruct.SIZE) {
-            PickupStruct.deactivate(address);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            PickupStruct.deactivate(address(i));
+            // Lower slots are handed out first
+            freeSlots[i] = POOL_SIZE - 1 - i;
         }
     }
 
-    // Deprecated in Java 9+, we're in Java 8
-    // Also there isn't a better way (that's not to say this way is good)
-    @Override
-    @SuppressWarnings("removal")
-    protected void finalize() {
-        // Gotta make sure we don't leak memory!
-        PickupStruct.free(poolAddress);
+    /**
+     * Creates a new pool and adds it to {@link SurvivorDungeon#pickupPools pickupPools}.
+     * @return The new pool.
+     */
+    public static PickupPool addPool() {
+        PickupPool pool = new PickupPool();
+        pickupPools.add(pool);
+        pool.registered = true;
+        pool.setOpen(true);
+        return pool;
+    }
+
+    /**
+     * Removes all pools from {@link SurvivorDungeon#pickupPools pickupPools} and frees all pickup memory,
+     * including that of pools that were never added. Also stops the threads used for parallel simulation.
+     */
+    public static void clearPools() {
+        for (PickupPool pool : pickupPools) {
+            pool.registered = pool.open = false;
+        }
+        pickupPools.clear();
+        openPools.clear();
+        compressor.reset();
+        Arrays.fill(bankValues, 0);
+        Arrays.fill(bankCounts, 0);
+        Arrays.fill(bankAddresses, 0);
+        if (arena != null) {
+            arena.dispose();
+            arena = null;
+        }
+        if (workers != null) {
+            workers.shutdown();
+            workers = null;
+        }
+    }
+
+    /**
+     * @return The memory all pools live in, or {@code null} if there are no pools.
+     */
+    public static PickupArena arena() {
+        return arena;
+    }
+
+    private void setOpen(boolean value) {
+        if (open == value) return;
+        open = value;
+        if (value) openPools.add(this);
+        else openPools.remove(this);
     }
 
     /*===== Basic Functionality =====*/
 
     /**
-     * Free the pool memory. Only call when removing the pool.
+     * Gives the pool memory back to the arena. Only call when removing the pool.
      */
     public void free() {
-        PickupStruct.free(poolAddress);
+        memory.release(poolAddress);
     }
 
     /**
      * @return Whether the pool is full
      */
     public boolean isFull() {
-        return usedPickups >= POOL_SIZE;
+        return freeCount == 0;
     }
 
     /**
@@ -77,43 +234,44 @@ public class PickupPool {
      */
     public boolean contains(long address) {
         long x; // This is either equivalent or slightly more optimal than inlining it ourselves
+        if (layout == Layout.STRUCT_OF_ARRAYS) {
+            return address < 0
+                    && (x = (address & ~PickupStruct.SOA_TAG) - poolAddress) >= 0 // Start
+                    && x < PickupStruct.SOA_STRIDE * POOL_SIZE; // End
+        }
         return (x = address - poolAddress) >= 0 // Start
                 && x < PickupStruct.SIZE * POOL_SIZE; // End
     }
 
     /**
      * Spawn a pickup of {@code type} at ({@code x}, {@code y}) with the given {@code compression}.<br>
-     * If {@code mayCompress} is {@code true}, it may attempt to compress the spawned pickup using {@link PickupPool#tryCompress(float, float, PickupType, int) tryCompress()}.
+     * If {@code mayCompress} is {@code true}, the {@link PickupPool#compressor compressor} will look at its cell first.
      * @param x The x coordinate where the pickup should spawn.
      * @param y The y coordinate where the pickup should spawn.
      * @param type The type of the pickup to spawn.
      * @param compression The compression level of the pickup to spawn.
-     * @param mayCompress Whether the pool is allowed to make a compression attempt.<br>
-     *                    Respects {@link PickupType#compressable type.compressable} regardless.
+     * @param mayCompress Whether to prioritize compressing the pickup.<br>
+     *                    It may still be compressed by the regular sweep either way.
      * @return The address of the spawned pickup.
      */
     public static long spawn(float x, float y, PickupType type, int compression, boolean mayCompress) {
-        for (PickupPool pool : pickupPools) {
-            if (!pool.isFull()) {
-                return pool.spawnLocal(x, y, type, compression, mayCompress);
-            }
+        if (type.collectsInBulk() && livePickups() >= SpireSurvivorsMod.maxPickups) {
+            return deposit(x, y, type, compression);
         }
-
-        // All pools must be full, so we add one more
-        PickupPool pool = new PickupPool();
-        pickupPools.add(pool);
+        // If all pools are full, we add one more
+        PickupPool pool = openPools.isEmpty() ? addPool() : openPools.get(0);
         return pool.spawnLocal(x, y, type, compression, mayCompress);
     }
 
     /**
      * Spawn a pickup of {@code type} at a random position near ({@code x}, {@code y}) with the given {@code compression}.<br>
-     * If {@code mayCompress} is {@code true}, it may attempt to compress the spawned pickup using {@link PickupPool#tryCompress(float, float, PickupType, int) tryCompress()}.
+     * If {@code mayCompress} is {@code true}, the {@link PickupPool#compressor compressor} will look at its cell first.
      * @param x The x coordinate where the pickup should spawn.
      * @param y The y coordinate where the pickup should spawn.
      * @param type The type of the pickup to spawn.
      * @param compression The compression level of the pickup to spawn.
-     * @param mayCompress Whether the pool is allowed to make a compression attempt.<br>
-     *                    Respects {@link PickupType#compressable type.compressable} regardless.
+     * @param mayCompress Whether to prioritize compressing the pickup.<br>
+     *                    It may still be compressed by the regular sweep either way.
      * @return The address of the spawned pickup.
      */
     public static long spawnScattered(float x, float y, PickupType type, int compression, boolean mayCompress) {
@@ -129,43 +287,112 @@ public class PickupPool {
      */
     public static void remove(long... addresses) {
         for (long address : addresses) {
-            for (PickupPool pool : pickupPools) {
-                if (pool.contains(address)) {
-                    pool.removeLocal(address);
-                    break;
-                }
+            remove(address);
+        }
+    }
+
+    /**
+     * Removes a pickup from any pool.
+     * @param address A pointer to the {@link PickupStruct} that should be removed.
+     */
+    public static void remove(long address) {
+        for (int i = 0; i < pickupPools.size(); i++) {
+            PickupPool pool = pickupPools.get(i);
+            if (pool.contains(address)) {
+                pool.removeLocal(address);
+                return;
             }
         }
     }
 
+    /**
+     * Adds pointers to all pickups in the {@link PickupPool#grid grid} cell with the given packed key to {@code out}.
+     */
+    void collectCell(int key, LongArray out) {
+        for (int slot = grid.head(key); slot != -1; slot = grid.next(slot)) {
+            out.add(address(slot));
+        }
+    }
+
+    /**
+     * @param address A pointer to a {@link PickupStruct} in this pool.
+     * @return The index of the slot {@code address} points to.
+     */
+    private int slot(long address) {
+        if (layout == Layout.STRUCT_OF_ARRAYS) {
+            return (int)(((address & ~PickupStruct.SOA_TAG) - poolAddress) / PickupStruct.SOA_STRIDE);
+        }
+        return (int)((address - poolAddress) / PickupStruct.SIZE);
+    }
+
+    /**
+     * @param slot The index of a slot in this pool.
+     * @return A pointer to the {@link PickupStruct} in that slot.
+     */
+    private long address(int slot) {
+        if (layout == Layout.STRUCT_OF_ARRAYS) {
+            return (poolAddress + (long)slot * PickupStruct.SOA_STRIDE) | PickupStruct.SOA_TAG;
+        }
+        return poolAddress + (long)slot * PickupStruct.SIZE;
+    }
+
     /**
      * Spawn a pickup of {@code type} at ({@code x}, {@code y}) with the given {@code compression} in this pool.<br>
-     * If {@code mayCompress} is {@code true}, it may attempt to compress the spawned pickup using {@link PickupPool#tryCompress(float, float, PickupType, int) tryCompress()}.
+     * If {@code mayCompress} is {@code true}, the {@link PickupPool#compressor compressor} will look at its cell first.
      * @param x The x coordinate where the pickup should spawn.
      * @param y The y coordinate where the pickup should spawn.
      * @param type The type of the pickup to spawn.
      * @param compression The compression level of the pickup to spawn.
-     * @param mayCompress Whether the pool is allowed to make a compression attempt.<br>
-     *                    Respects {@link PickupType#compressable type.compressable} regardless.
+     * @param mayCompress Whether to prioritize compressing the pickup.<br>
+     *                    It may still be compressed by the regular sweep either way.
      * @return The address of the spawned pickup.
      */
     public long spawnLocal(float x, float y, PickupType type, int compression, boolean mayCompress) {
-        if (type.compressable && mayCompress) compression = tryCompressOnce(x, y, type, compression);
+        if (type.compressable && mayCompress) compressor.markDirty(x, y);
 
-        long address = getInactive();
+        int slot = takeSlot();
+        long address = address(slot);
         PickupStruct.clear(address);
 
         PickupStruct.type(address, type);
-        usedPickups += 1;
 
         PickupStruct.x(address, x);
         PickupStruct.y(address, y);
+        PickupStruct.storePosition(address);
 
         PickupStruct.scale(address, 1f);
         PickupStruct.timer(address, MathUtils.random(0, (float)Math.PI * 2));
 
         PickupStruct.compression(address, compression);
         PickupStruct.flags(address, type.flags);
+
+        grid.add(slot, x, y);
+        return address;
+    }
+
+    /**
+     * Marks a free slot as active.
+     * @return The index of the slot.
+     */
+    private int takeSlot() {
+        if (isFull()) throw new OutOfMemoryError("Pickup Pool out of inactive slots");
+        int slot = freeSlots[--freeCount];
+        activePositions[slot] = usedPickups;
+        activeSlots[usedPickups] = slot;
+        usedPickups += 1;
+        if (isFull()) setOpen(false);
+        return slot;
+    }
+
+    /**
+     * Copies the pickup at {@code from} into a free slot of this pool.
+     * @param from A pointer to a {@link PickupStruct}, usually in another pool.
+     */
+    private long adopt(long from) {
+        int slot = takeSlot();
+        long address = address(slot);
+        PickupStruct.copy(from, address);
+        grid.add(slot, PickupStruct.x(address), PickupStruct.y(address));
         return address;
     }
 
@@ -181,174 +408,257 @@ public class PickupPool {
      * @param address A pointer to the {@link PickupStruct} that should be removed.
      */
     public void removeLocal(long address) {
+        if (!PickupStruct.active(address)) return;
+        int slot = slot(address);
+        grid.remove(slot);
         PickupStruct.deactivate(address);
-        usedPickups -= 1;
-    }
 
-    /**
-     * Returns a pointer to the first inactive {@link PickupStruct} in this pool.
-     * @return A pointer to a {@link PickupStruct}.
-     */
-    private long getInactive() {
-        long baseAddress = poolAddress;
-        for (int i = 0; i < POOL_SIZE; i++, baseAddress += PickupStruct.SIZE) {
-            if (!PickupStruct.active(baseAddress)) {
-                return baseAddress;
-            }
-        }
+        // Swap the last active slot into the removed one's place
+        usedPickups -= 1;
+        int position = activePositions[slot];
+        int last = activeSlots[usedPickups];
+        activeSlots[position] = last;
+        activePositions[last] = position;
 
-        // Unreachable
-        throw new OutOfMemoryError("Pickup Pool out of inactive slots");
+        freeSlots[freeCount++] = slot;
+        if (registered) setOpen(true);
     }
 
 
-    /*===== Compression =====*/
+    /*===== Bulk Collection =====*/
 
+    /**
+     * Summed values and counts of pickups collected in bulk, indexed by type id
+     */
+    private static long[] bulkValues = new long[8];
+    private static int[] bulkCounts = new int[8];
+    /**
+     * The ids of all types with a non-zero count in {@code bulkCounts}
+     */
+    private static final IntArray bulkTypes = new IntArray();
 
-    public int tryCompressOnce(float x, float y, PickupType type, int compression) {
-        ArrayList<Long> nearby_pickups = nearby(x, y, AbstractPickup.COMPRESSION_RANGE,
-                address -> PickupStruct.type(address) == type && PickupStruct.compression(address) == compression);
-        if (nearby_pickups.size() < 7) return compression;
+    /**
+     * Collects every collectable pickup in all pools at once.<br>
+     * Types that {@link PickupBehavior#collectsInBulk() collect in bulk} get a single
+     * {@link PickupBehavior#onCollectAll(long, int) onCollectAll()} with the summed value, others get
+     * {@link PickupBehavior#onCollect(long) onCollect()} per pickup. {@code onTouch} is skipped.
+     * @param fly Whether the pickups should still fly to the player before disappearing.
+     *            Their value is delivered right away either way.
+     * @see PickupPool#collectAllLocal(boolean) collectAllLocal()
+     */
+    public static void collectAll(boolean fly) {
+        for (int i = 0; i < pickupPools.size(); i++) {
+            pickupPools.get(i).gatherAll(fly);
+        }
+        deliverBulk();
+    }
 
-       nearby_pickups.subList(0, 7).forEach(PickupPool::remove);
-       return compression + 1;
+    /**
+     * Collects every collectable pickup in this pool at once.
+     * @param fly Whether the pickups should still fly to the player before disappearing.
+     * @see PickupPool#collectAll(boolean) collectAll()
+     */
+    public void collectAllLocal(boolean fly) {
+        gatherAll(fly);
+        deliverBulk();
     }
 
-    // Broken :(
+    /**
+     * Pickups {@link PickupPool#gatherAll(boolean) gatherAll()} collected that still need their {@link PickupBehavior#onCollect(long) onCollect()}, and their types
+     */
+    private final long[] gathered = new long[POOL_SIZE];
+    private final PickupType[] gatheredTypes = new PickupType[POOL_SIZE];
+    private boolean gathering = false;
 
     /**
-     * Attempts to compress a potential pickup spawn at ({@code x}, {@code y}) of {@code type}
-     * with an initial compression of {@code compression}.
-     * @param x The x coordinate of the potential pickup spawn
-     * @param y The y coordinate of the potential pickup spawn
-     * @param type The type of of the potential pickup spawn
-     * @param compression The initial compression of the pickup
-     * @return The new compression the pickup should use.
+     * Collects all collectable pickups in this pool, deferring bulk types and banks to {@link PickupPool#deliverBulk() deliverBulk()}.<br>
+     * The active list is compacted in a single pass first, releasing slots as it goes rather than one {@link PickupPool#removeLocal(long) removeLocal()} each.
+     * Only {@link PickupBehavior#canCollect(long) canCollect()} is called during that pass.
+     * {@link PickupBehavior#onCollect(long) onCollect()} runs once the pool is consistent again, so it may spawn and remove pickups.<br>
+     * Without {@code fly}, pickups are already inactive when their {@code onCollect()} runs. Their fields are left intact,
+     * since their slots are only freed once every {@code onCollect()} is done.
      */
-    public int tryCompress(float x, float y, PickupType type, int compression) {
-        final int BUCKET_COUNT = 32;
+    private void gatherAll(boolean fly) {
+        if (gathering) throw new IllegalStateException("Pickups can't be collected in bulk from onCollect()");
+        gathering = true;
+        int kept = 0;
+        int deferred = 0;
+        for (int i = 0; i < usedPickups; i++) {
+            int slot = activeSlots[i];
+            long address = address(slot);
+            PickupType type = PickupStruct.type(address);
 
-        /*
-         * buckets_pickups is only here to maintain a list of pickups to remove after we manage to compress them
-         * buckets_count[n] stores the amount of pickups we could achieve at compression level n,
-         *                  regardless of whether it's valid (2^{COMPRESSION_FACTOR * k}) or not
-         * Example changes of buckets_count with BUCKET_COUNT = 8 over the run of this function:
-         *          v Goal, goal_n = 2
-         * [ 0| 2| 0| 0| 1| 0| 0|27]
-         * [ 0| 2| 0| 0| 1| 0|13| 1]
-         *                   +13 %2
-         * [ 0| 2| 0| 0| 1| 6| 1| 1]
-         *                 +6 %2
-         * [ 0| 2| 0| 0| 3| 0| 1| 1]
-         *              +2 %2
-         * And done. In the above example, we're able to reach only our first goal.
-         * We also compress one (1) pickup extra as collateral.
-         */
-        @SuppressWarnings("unchecked")
-        ArrayList<Long>[] buckets_pickups = new ArrayList[BUCKET_COUNT];
-        int[] buckets_count = new int[BUCKET_COUNT];
-        for (int i = 0; i < BUCKET_COUNT; i++) {
-            if (i == compression * AbstractPickup.COMPRESSION_FACTOR) buckets_count[i] += 1;
-            buckets_pickups[i] = new ArrayList<>(32);
-        }
-
-        // Add nearby pickups to buckets
-        runForNearby(x, y, AbstractPickup.COMPRESSION_RANGE, address -> {
-            if (PickupStruct.type(address) == type) {
-                buckets_count[PickupStruct.compression(address) * AbstractPickup.COMPRESSION_FACTOR] += 1;
-                buckets_pickups[PickupStruct.compression(address) * AbstractPickup.COMPRESSION_FACTOR].add(address);
+            boolean collect = true;
+            boolean defer = false;
+            if (isBank(type, address)) {
+                emptyBank(type);
+            } else if (PickupStruct.collected(address) || !type.canCollect(address)) {
+                collect = false;
+            } else if (type.collectsInBulk()) {
+                addBulk(type.id, PickupStruct.value(address), 1);
+            } else {
+                gathered[deferred] = address;
+                gatheredTypes[deferred] = type;
+                deferred++;
+                defer = true;
             }
-        });
 
-        int goal = (compression + 1) * AbstractPickup.COMPRESSION_FACTOR;
-        int goal_n = buckets_count[goal] + 1;
-
-        if (!canAchieveNextCompression(buckets_count, compression * AbstractPickup.COMPRESSION_FACTOR, 0)) {
-            // We can't do anything
-            return compression;
+            if (collect && !fly) {
+                grid.remove(slot);
+                PickupStruct.deactivate(address);
+                if (!defer) freeSlots[freeCount++] = slot;
+            } else {
+                if (collect) PickupStruct.collected(address, true);
+                activeSlots[kept] = slot;
+                activePositions[slot] = kept;
+                kept++;
+            }
         }
-
-        /*
-         * buckets_count[n] += buckets_count[n - 1] / 2
-         * buckets_count[n - 1] %= 2
-         *
-         * We also move the appropriate amount of pickups from buckets_pickups[n - 1] to buckets_pickups[n] as well
-         */
-
-        for (int i = 0; i < BUCKET_COUNT; i++) {
-            if (i == goal) {
-                if (buckets_count[i] >= goal_n) {
-                    // If we can't achieve the next goal, we're done
-                    if (!canAchieveNextCompression(buckets_count, goal, i)) break;
-
-                    // Continue onto the next valid goal
-                    goal += AbstractPickup.COMPRESSION_FACTOR;
-                    goal_n = buckets_count[goal] + 1;
-                } else break;
+        usedPickups = kept;
+
+        try {
+            for (int i = 0; i < deferred; i++) {
+                long address = gathered[i];
+                // Flying pickups are still in the pool, so an earlier onCollect() may have removed them
+                if (fly && !(PickupStruct.active(address) && PickupStruct.collected(address))) continue;
+                gatheredTypes[i].onCollect(address);
             }
-            if (i == BUCKET_COUNT - 1) break;
-
-            int count = buckets_count[i];
-            ArrayList<Long> list = buckets_pickups[i];
-
-            if (count % 2 == 1) {
-                buckets_pickups[i + 1].addAll(list.subList(1, list.size()));
-
-                long first = list.get(0);
-                list.clear();
-                list.add(first);
-            } else {
-                buckets_pickups[i + 1].addAll(list);
-                list.clear();
+        } finally {
+            if (!fly) {
+                for (int i = 0; i < deferred; i++) {
+                    freeSlots[freeCount++] = slot(gathered[i]);
+                }
             }
+            gathering = false;
+        }
+        if (registered && !isFull()) setOpen(true);
+    }
 
-            buckets_count[i + 1] += count/2;
-            buckets_count[i] %= 2;
+    private static void addBulk(int id, long value, int count) {
+        if (count == 0) return;
+        if (id >= bulkCounts.length) {
+            int length = Math.max(bulkCounts.length * 2, id + 1);
+            bulkValues = Arrays.copyOf(bulkValues, length);
+            bulkCounts = Arrays.copyOf(bulkCounts, length);
         }
+        if (bulkCounts[id] == 0) bulkTypes.add(id);
+        bulkValues[id] += value;
+        bulkCounts[id] += count;
+    }
 
-        // Remove all pickups that didn't start at our achieved compression level
-        // - the purpose of buckets_pickups realized
-        for (long address : buckets_pickups[goal]) {
-            if (PickupStruct.compression(address) != goal) {
-                remove(address);
-            }
+    /**
+     * Hands the sums gathered by {@link PickupPool#gatherAll(boolean) gatherAll()} to their types.
+     */
+    private static void deliverBulk() {
+        for (int i = 0; i < bulkTypes.size; i++) {
+            int id = bulkTypes.get(i);
+            long value = bulkValues[id];
+            int count = bulkCounts[id];
+            bulkValues[id] = 0;
+            bulkCounts[id] = 0;
+            PickupType.deserialize(id).onCollectAll(value, count);
         }
+        bulkTypes.clear();
+    }
+
 
-        // Convert back to valid compression (2^COMPRESSION_FACTOR-inary instead of binary)
-        compression = goal / AbstractPickup.COMPRESSION_FACTOR;
+    /*===== Population Budget =====*/
 
-        // Spawn collateral
-        int collateral = buckets_count[goal] - goal_n;
-        for (int i = 0; i < collateral; i++) {
-            // During compression we'll always remove more pickups than we'll compress extras
-            // So we can use the pool's local spawn method
-            spawnScatteredLocal(x, y, type, compression, false);
+    /**
+     * The size of a bank relative to regular pickups
+     */
+    public static final float BANK_SCALE = 1.5f;
+    /**
+     * Value and pickup count folded into the bank of each type, indexed by type id
+     */
+    private static long[] bankValues = new long[8];
+    private static int[] bankCounts = new int[8];
+    /**
+     * The pickup showing the bank of each type, or {@code 0} if it doesn't exist
+     */
+    private static long[] bankAddresses = new long[8];
+
+    /**
+     * @return The amount of active pickups in all pools.
+     */
+    public static int livePickups() {
+        int count = 0;
+        for (int i = 0; i < pickupPools.size(); i++) {
+            count += pickupPools.get(i).usedPickups;
         }
+        return count;
+    }
 
-        return compression;
+    /**
+     * @return The value currently folded into the bank of {@code type}.
+     */
+    public static long bankedValue(PickupType type) {
+        return type.id < bankValues.length ? bankValues[type.id] : 0;
     }
 
     /**
-     * Returns whether, given an array of count buckets, the current goal, and the current iteration,
-     * it's possible to reach the next goal.
-     * @param buckets_count The array of count buckets to use for the calculation.
-     * @param goal The current goal.
-     * @param i The current iteration.
-     * @return Whether it's possible to reach the next compression goal.
+     * Whether the pickup at {@code address} is a bank.<br>
+     * Banks are pickups of a non-persistent type that have {@link PickupStruct#FLAG_PERSISTENT FLAG_PERSISTENT} set,
+     * so neither compression nor regular collection touch them.
      */
-    private boolean canAchieveNextCompression(int[] buckets_count, int goal, int i) {
-        // Max compression achieved
-        int next_goal = goal + AbstractPickup.COMPRESSION_FACTOR;
-        if (next_goal >= buckets_count.length) return false;
+    private static boolean isBank(PickupType type, long address) {
+        return PickupStruct.persistent(address) && !type.persistent() && !PickupStruct.collected(address);
+    }
 
-        // There's not enough to compress further
-        int next_goal_n = buckets_count[next_goal] + 1;
-        int sum = 0;
-        for (int j = i; j < next_goal; j++) {
-            sum /= 2;
-            sum += buckets_count[j];
+    /**
+     * Folds a drop into the bank of its type instead of giving it a slot, creating the bank at ({@code x}, {@code y}) if needed.<br>
+     * Only used for types that {@link PickupBehavior#collectsInBulk() collect in bulk}, since the bank pays out through
+     * {@link PickupBehavior#onCollectAll(long, int) onCollectAll()}.
+     * @return The address of the bank.
+     */
+    private static long deposit(float x, float y, PickupType type, int compression) {
+        int id = type.id;
+        if (id >= bankValues.length) {
+            int length = Math.max(bankValues.length * 2, id + 1);
+            bankValues = Arrays.copyOf(bankValues, length);
+            bankCounts = Arrays.copyOf(bankCounts, length);
+            bankAddresses = Arrays.copyOf(bankAddresses, length);
+        }
+        bankValues[id] += AbstractPickup.value(compression);
+        bankCounts[id] += 1;
+
+        long bank = bankAddresses[id];
+        if (bank == 0) {
+            // The only pickup allowed past the cap, and only one per type
+            PickupPool pool = openPools.isEmpty() ? addPool() : openPools.get(0);
+            bank = bankAddresses[id] = pool.spawnLocal(x, y, type, 0, false);
+            PickupStruct.persistent(bank, true);
+            PickupStruct.scale(bank, BANK_SCALE);
         }
-        return sum >= next_goal_n;
+        // Show the highest compression level the bank is worth
+        int level = (63 - Long.numberOfLeadingZeros(bankValues[id])) / AbstractPickup.COMPRESSION_FACTOR;
+        PickupStruct.compression(bank, Math.min(level, AbstractPickup.COLOR_TIERS - 1));
+        return bank;
+    }
+
+    /**
+     * Moves the bank of {@code type} into the sums paid out by {@link PickupPool#deliverBulk() deliverBulk()}.
+     * The bank pickup itself has to be removed by the caller.
+     */
+    private static void emptyBank(PickupType type) {
+        int id = type.id;
+        addBulk(id, bankValues[id], bankCounts[id]);
+        bankValues[id] = 0;
+        bankCounts[id] = 0;
+        bankAddresses[id] = 0;
+    }
+
+    /**
+     * Pays out and empties the bank of {@code type}. The bank pickup itself has to be removed by the caller.
+     */
+    private static void cashBank(PickupType type) {
+        int id = type.id;
+        long value = bankValues[id];
+        int count = bankCounts[id];
+        bankValues[id] = 0;
+        bankCounts[id] = 0;
+        bankAddresses[id] = 0;
+        if (count > 0) type.onCollectAll(value, count);
     }
 
 
@@ -362,11 +672,10 @@ public class PickupPool {
      * @param action The action to perform.<br>
      *               Takes a pointer to a {@link PickupStruct}.
      * @see PickupPool#runForNearbyLocal(float, float, float, Consumer) runForNearbyLocal()
+     * @see PickupPool#visitNearby(float, float, float, LongConsumer) visitNearby()
      */
     public static void runForNearby(float x, float y, float r, Consumer<Long> action) {
-        pickupPools.forEach(
-            pool -> pool.runForNearbyLocal(x, y, r, action)
-        );
+        visitNearby(x, y, r, action::accept);
     }
 
     /**
@@ -376,6 +685,7 @@ public class PickupPool {
      * @param r The radius of the circle.
      * @return ArrayList&lt;{@link PickupStruct}*&gt;.
      * @see PickupPool#nearbyLocal(float, float, float) nearby()
+     * @see PickupPool#collectNearby(float, float, float, LongPredicate, LongArray) collectNearby()
      */
     public static ArrayList<Long> nearby(float x, float y, float r) {
         return nearby(x, y, r, __ -> true);
@@ -390,12 +700,13 @@ public class PickupPool {
      *               Takes in a pointer to a {@link PickupStruct}.
      * @return ArrayList&lt;{@link PickupStruct}*&gt;.
      * @see PickupPool#nearbyLocal(float, float, float, Predicate) nearbyLocal()
+     * @see PickupPool#collectNearby(float, float, float, LongPredicate, LongArray) collectNearby()
      */
     public static ArrayList<Long> nearby(float x, float y, float r, Predicate<Long> filter) {
         ArrayList<Long> pickups = new ArrayList<>();
-        pickupPools.forEach(
-            pool -> pickups.addAll(pool.nearbyLocal(x, y, r, filter))
-        );
+        visitNearby(x, y, r, address -> {
+            if (filter.test(address)) pickups.add(address);
+        });
         return pickups;
     }
 
@@ -404,11 +715,10 @@ public class PickupPool {
      * @param action The action to perform.<br>
      *               Takes a pointer to a {@link PickupStruct}
      * @see PickupPool#forEachLocal(Consumer) forEachLocal()
+     * @see PickupPool#visit(LongConsumer) visit()
      */
     public static void forEach(Consumer<Long> action) {
-        pickupPools.forEach(
-            pool -> pool.forEachLocal(action)
-        );
+        visit(action::accept);
     }
 
     /**
@@ -419,15 +729,10 @@ public class PickupPool {
      * @param action The action to perform.<br>
      *               Takes a pointer to a {@link PickupStruct}.
      * @see PickupPool#runForNearby(float, float, float, Consumer) runForNearby()
+     * @see PickupPool#visitNearbyLocal(float, float, float, LongConsumer) visitNearbyLocal()
      */
     public void runForNearbyLocal(float x, float y, float r, Consumer<Long> action) {
-        forEachLocal(address -> {
-            float dx = PickupStruct.x(address) - x;
-            float dy = PickupStruct.y(address) - y;
-            if (dx*dx + dy*dy <= r*r) {
-                action.accept(address);
-            }
-        });
+        visitNearbyLocal(x, y, r, action::accept);
     }
 
     /**
@@ -455,50 +760,268 @@ public class PickupPool {
      */
     public ArrayList<Long> nearbyLocal(float x, float y, float r, Predicate<Long> filter) {
         ArrayList<Long> pickups = new ArrayList<>();
-        forEachLocal(address -> {
-            float dx = PickupStruct.x(address) - x;
-            float dy = PickupStruct.y(address) - y;
-            if (dx*dx + dy*dy <= r*r && filter.test(address)) {
-                pickups.add(address);
-            }
+        visitNearbyLocal(x, y, r, address -> {
+            if (filter.test(address)) pickups.add(address);
         });
         return pickups;
     }
 
     /**
-     * Calls {@code action} for pickups in this pool.
+     * Calls {@code action} for pickups in this pool.<br>
+     * Only active slots are visited. {@code action} may remove the pickup it was given.
      * @param action The action to perform.<br>
      *               Takes a pointer to a {@link PickupStruct}
      * @see PickupPool#forEach(Consumer) forEach()
+     * @see PickupPool#visitLocal(LongConsumer) visitLocal()
      */
     public void forEachLocal(Consumer<Long> action) {
-        long baseAddress = poolAddress;
-        for (int i = 0; i < POOL_SIZE; i++, baseAddress += PickupStruct.SIZE) {
-            if (PickupStruct.active(baseAddress)) {
-                action.accept(baseAddress);
+        visitLocal(action::accept);
+    }
+
+
+    /*====== PRIMITIVE ITERATION ======*/
+    // Same as above, but without boxing pointers or allocating lists
+
+    /**
+     * Calls {@code action} for all pickups within a circle with radius {@code r} at position ({@code x}, {@code y}).
+     * @param x The x coordinate of the center of the circle.
+     * @param y The y coordinate of the center of the circle.
+     * @param r The radius of the circle.
+     * @param action The action to perform.<br>
+     *               Takes a pointer to a {@link PickupStruct}.
+     * @see PickupPool#visitNearbyLocal(float, float, float, LongConsumer) visitNearbyLocal()
+     */
+    public static void visitNearby(float x, float y, float r, LongConsumer action) {
+        for (int i = 0; i < pickupPools.size(); i++) {
+            pickupPools.get(i).visitNearbyLocal(x, y, r, action);
+        }
+    }
+
+    /**
+     * Adds pointers to all pickups within a circle with radius {@code r} at position ({@code x}, {@code y})
+     * that pass {@code filter} to {@code out}.
+     * @param x The x coordinate of the center of the circle.
+     * @param y The y coordinate of the center of the circle.
+     * @param r The radius of the circle.
+     * @param filter The filter that determines whether a given pickup will be added to {@code out}.<br>
+     *               Takes in a pointer to a {@link PickupStruct}.
+     * @param out The buffer to add the pointers to. It is not cleared beforehand.
+     * @return {@code out}.
+     * @see PickupPool#collectNearbyLocal(float, float, float, LongPredicate, LongArray) collectNearbyLocal()
+     */
+    public static LongArray collectNearby(float x, float y, float r, LongPredicate filter, LongArray out) {
+        for (int i = 0; i < pickupPools.size(); i++) {
+            pickupPools.get(i).collectNearbyLocal(x, y, r, filter, out);
+        }
+        return out;
+    }
+
+    /**
+     * Calls {@code action} for all pickups.
+     * @param action The action to perform.<br>
+     *               Takes a pointer to a {@link PickupStruct}
+     * @see PickupPool#visitLocal(LongConsumer) visitLocal()
+     */
+    public static void visit(LongConsumer action) {
+        for (int i = 0; i < pickupPools.size(); i++) {
+            pickupPools.get(i).visitLocal(action);
+        }
+    }
+
+    /**
+     * Calls {@code action} for pickups in this pool within a circle with radius {@code r} at position ({@code x}, {@code y}).<br>
+     * {@code action} may remove the pickup it was given.
+     * @param x The x coordinate of the center of the circle.
+     * @param y The y coordinate of the center of the circle.
+     * @param r The radius of the circle.
+     * @param action The action to perform.<br>
+     *               Takes a pointer to a {@link PickupStruct}.
+     * @see PickupPool#visitNearby(float, float, float, LongConsumer) visitNearby()
+     */
+    public void visitNearbyLocal(float x, float y, float r, LongConsumer action) {
+        if (usedPickups == 0) return;
+        int x0 = grid.cell(x - r), x1 = grid.cell(x + r);
+        int y0 = grid.cell(y - r), y1 = grid.cell(y + r);
+        for (int cx = x0; cx <= x1; cx++) {
+            for (int cy = y0; cy <= y1; cy++) {
+                for (int slot = grid.head(SlotGrid.key(cx, cy)); slot != -1; ) {
+                    // Grab the next slot first in case the action removes this one
+                    int next = grid.next(slot);
+                    long address = address(slot);
+                    float dx = PickupStruct.x(address) - x;
+                    float dy = PickupStruct.y(address) - y;
+                    if (dx*dx + dy*dy <= r*r) {
+                        action.accept(address);
+                    }
+                    slot = next;
+                }
             }
         }
     }
 
+    /**
+     * Adds pointers to pickups in this pool within a circle with radius {@code r} at position ({@code x}, {@code y})
+     * that pass {@code filter} to {@code out}.
+     * @param x The x coordinate of the center of the circle.
+     * @param y The y coordinate of the center of the circle.
+     * @param r The radius of the circle.
+     * @param filter The filter that determines whether a given pickup will be added to {@code out}.<br>
+     *               Takes in a pointer to a {@link PickupStruct}.
+     * @param out The buffer to add the pointers to. It is not cleared beforehand.
+     * @return {@code out}.
+     * @see PickupPool#collectNearby(float, float, float, LongPredicate, LongArray) collectNearby()
+     */
+    public LongArray collectNearbyLocal(float x, float y, float r, LongPredicate filter, LongArray out) {
+        if (usedPickups == 0) return out;
+        int x0 = grid.cell(x - r), x1 = grid.cell(x + r);
+        int y0 = grid.cell(y - r), y1 = grid.cell(y + r);
+        for (int cx = x0; cx <= x1; cx++) {
+            for (int cy = y0; cy <= y1; cy++) {
+                for (int slot = grid.head(SlotGrid.key(cx, cy)); slot != -1; slot = grid.next(slot)) {
+                    long address = address(slot);
+                    float dx = PickupStruct.x(address) - x;
+                    float dy = PickupStruct.y(address) - y;
+                    if (dx*dx + dy*dy <= r*r && filter.test(address)) {
+                        out.add(address);
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Calls {@code action} for pickups in this pool.<br>
+     * Only active slots are visited. {@code action} may remove the pickup it was given.
+     * @param action The action to perform.<br>
+     *               Takes a pointer to a {@link PickupStruct}
+     * @see PickupPool#visit(LongConsumer) visit()
+     */
+    public void visitLocal(LongConsumer action) {
+        // Walk backwards so removing the current pickup only swaps in one we've already visited
+        for (int i = usedPickups - 1; i >= 0; i--) {
+            action.accept(address(activeSlots[i]));
+        }
+    }
+
 
     /*===== POOL HANDLING =====*/
 
     /**
-     * Updates all pickups. Should only be called once per frame.
+     * Updates all pickups, then gives the {@link PickupPool#compressor compressor} its share of the tick. Should only be called once per tick.<br>
+     * Pools are simulated first, in parallel if {@link SpireSurvivorsMod#parallelPickups parallelPickups} is on.
+     * Touched pickups are then handled on this thread, pool by pool in order, so both ways give the same result.
      * @see PickupPool#updateLocal()
      */
     public static void update() {
-        pickupPools.forEach(PickupPool::updateLocal);
+        int pools = pickupPools.size();
+        if (SpireSurvivorsMod.parallelPickups && pools > 1) {
+            workers().invoke(new SimulateTask(0, pools));
+        } else {
+            for (int i = 0; i < pools; i++) {
+                pickupPools.get(i).simulate();
+            }
+        }
+        // Pools added while committing haven't been simulated, and have nothing to commit
+        for (int i = 0; i < pools; i++) {
+            pickupPools.get(i).commit();
+        }
+        compressor.update();
+        compact();
+    }
+
+    private static ForkJoinPool workers() {
+        if (workers == null) {
+            // Daemon threads, so a pool that's never cleared can't keep the game from exiting
+            workers = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setDaemon(true);
+                thread.setName("Pickup worker " + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+        return workers;
+    }
+
+    /**
+     * Simulates the pools in {@code [from, to)} of {@link SurvivorDungeon#pickupPools pickupPools}, splitting them across workers.
+     */
+    private static final class SimulateTask extends RecursiveAction {
+        private final int from, to;
+
+        SimulateTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                pickupPools.get(from).simulate();
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SimulateTask(from, mid), new SimulateTask(mid, to));
+            }
+        }
+    }
+
+    /**
+     * Moves every pickup out of the emptiest pool and frees it, if the remaining pools can comfortably hold them.<br>
+     * Pointers to the moved pickups are invalidated, so they shouldn't be held on to across updates.
+     */
+    private static void compact() {
+        int pools = pickupPools.size();
+        if (pools < 2) return;
+
+        int used = 0;
+        PickupPool emptiest = null;
+        for (int i = 0; i < pools; i++) {
+            PickupPool pool = pickupPools.get(i);
+            used += pool.usedPickups;
+            if (emptiest == null || pool.usedPickups < emptiest.usedPickups) emptiest = pool;
+        }
+        if (used > (pools - 1) * POOL_SIZE * compactThreshold) return;
+
+        // Take it out first so it isn't picked as a destination
+        pickupPools.remove(emptiest);
+        emptiest.setOpen(false);
+        emptiest.registered = false;
+        for (int i = emptiest.usedPickups - 1; i >= 0; i--) {
+            long address = openPools.get(0).adopt(emptiest.address(emptiest.activeSlots[i]));
+            PickupType type = PickupStruct.type(address);
+            if (isBank(type, address)) bankAddresses[type.id] = address;
+        }
+        emptiest.free();
+    }
+
+    /**
+     * Remembers the current positions of all pickups so rendering can interpolate from them. Called at the start of every tick.
+     */
+    public static void storePositions() {
+        for (int i = 0; i < pickupPools.size(); i++) {
+            pickupPools.get(i).storePositionsLocal();
+        }
     }
 
     /**
-     * Renders all pickups onto {@code sb}.
+     * Renders all pickups on screen onto {@code sb} at their current positions.
      * @param sb The {@link SpriteBatch} to draw onto.
      */
     public static void render(SpriteBatch sb) {
-        pickupPools.forEach(
-            pool -> pool.renderLocal(sb)
-        );
+        render(sb, 1f);
+    }
+
+    /**
+     * Renders all pickups on screen onto {@code sb}, {@code alpha} of the way between their positions at the start of the last tick and their current ones.
+     * @param sb The {@link SpriteBatch} to draw onto.
+     * @param alpha How far into the next tick the frame is, from 0 to 1.
+     */
+    public static void render(SpriteBatch sb, float alpha) {
+        renderer.begin(alpha);
+        for (int i = 0; i < pickupPools.size(); i++) {
+            pickupPools.get(i).queueRender();
+        }
+        renderer.end(sb);
     }
 
     /**
@@ -507,101 +1030,205 @@ public class PickupPool {
      * @param y The y coordinate to move by.
      */
     public static void move(float x, float y) {
-        pickupPools.forEach(
-            pool -> pool.moveLocal(x, y)
-        );
+        for (int i = 0; i < pickupPools.size(); i++) {
+            pickupPools.get(i).moveLocal(x, y);
+        }
     }
 
     /**
-     * Updates pickups in this pool. Should only be called once per frame.
+     * Updates pickups in this pool. Should only be called once per tick.
      * @see PickupPool#update()
      */
     public void updateLocal() {
+        simulate();
+        commit();
+    }
+
+    /**
+     * Moves, bobs and pulls the pickups in this pool, and notes down which ones the player touched.<br>
+     * Only touches this pool, so pools can be simulated in parallel.
+     * {@link PickupBehavior#update(long) update()} and {@link PickupBehavior#pullAll(long[], int, int, float, float, float) pullAll()}
+     * are called from here, so they may run on a worker thread.
+     */
+    private void simulate() {
+        AbstractSurvivorPlayer player = SurvivorDungeon.player;
+        simulate(player.basePlayer.hb.cX, player.basePlayer.hb.cY, player.pickupRangeMultiplier * AbstractSurvivorPlayer.PICKUP_PULL_RANGE);
+    }
+
+    /**
+     * {@link PickupPool#simulate() simulate()} for a player at ({@code playerX}, {@code playerY}) that pulls pickups within {@code pullRange}.
+     */
+    void simulate(float playerX, float playerY, float pullRange) {
         // Store some variables for all pickups instead of recalculating or re-accessing them every time
-        float playerX = SurvivorDungeon.player.basePlayer.hb.cX;
-        float playerY = SurvivorDungeon.player.basePlayer.hb.cY;
+        float delta = SurvivorDungeon.tickDuration;
 
-        double pullRange = Math.pow(SurvivorDungeon.player.pickupRangeMultiplier * AbstractSurvivorPlayer.PICKUP_PULL_RANGE, 2);
-        double collectRange = Math.pow(AbstractSurvivorPlayer.PICKUP_COLLECT_RANGE, 2);
+        pullRange *= pullRange;
+        float collectRange = AbstractSurvivorPlayer.PICKUP_COLLECT_RANGE * AbstractSurvivorPlayer.PICKUP_COLLECT_RANGE;
 
-        forEachLocal(address -> {
-            float dx = PickupStruct.x(address) - playerX;
-            float dy = PickupStruct.y(address) - playerY;
+        updateDistances(playerX, playerY);
+        int pulledCount = 0;
+        touchedCount = 0;
 
-            if (!PickupStruct.type(address).update(address)) return;
+        for (int i = usedPickups - 1; i >= 0; i--) {
+            int slot = activeSlots[i];
+            long address = address(slot);
+            float distance = distances[slot];
+            PickupType type = PickupStruct.type(address);
 
-            // Try to collect pickup
-            if (dx*dx + dy*dy <= collectRange) {
-                PickupStruct.type(address).onTouch(address);
-                if (PickupStruct.type(address).canCollect(address)) {
-                    PickupStruct.type(address).onCollect(address);
-                    removeLocal(address);
-                    return;
-                }
+            if (!type.update(address)) continue;
+
+            // Collection happens in commit()
+            if (distance <= collectRange) {
+                touched[touchedCount++] = address;
             }
 
             // Bobby Pickups
             if (!PickupStruct.noBob(address) && !PickupStruct.beingPulled(address)) {
-                float bobTimerDelta = Gdx.graphics.getDeltaTime() * PickupStruct.type(address).bobSpeed;
-                PickupStruct.timer(address, PickupStruct.timer(address) + bobTimerDelta);
-                if (PickupStruct.timer(address) > Math.PI * 2) {
+                float timer = PickupStruct.timer(address) + delta * type.bobSpeed;
+                if (timer > MathUtils.PI2) {
                     // Preemptively avoiding reaching limits in long runs
-                    PickupStruct.timer(address, PickupStruct.timer(address) - (float)Math.PI * 2);
+                    timer -= MathUtils.PI2;
                 }
-
+                PickupStruct.timer(address, timer);
             }
 
-            // Try to pull towards player
-            if (!PickupStruct.noPull(address) && dx*dx + dy*dy <= pullRange) {
-                PickupStruct.type(address).pull(address);
-
+            // Pickups in pull range are moved together once we're done here
+            if (PickupStruct.collected(address) || !PickupStruct.noPull(address) && distance <= pullRange) {
+                pulled[pulledCount++] = address;
+            } else {
                 if (PickupStruct.beingPulled(address)) {
-                    PickupStruct.timer(address, PickupStruct.timer(address) + Gdx.graphics.getDeltaTime());
-                } else {
-                    PickupStruct.beingPulled(address, true);
+                    PickupStruct.beingPulled(address, false);
                     PickupStruct.timer(address, 0);
                 }
+                grid.move(slot, PickupStruct.x(address), PickupStruct.y(address));
+            }
+        }
+
+        pullQueued(pulledCount, playerX, playerY, delta);
+    }
+
+    /**
+     * Handles the pickups {@link PickupPool#simulate() simulate()} found touching the player, in the order it found them.<br>
+     * Has to run on the main thread, since collecting a pickup can do just about anything.
+     */
+    void commit() {
+        for (int i = 0; i < touchedCount; i++) {
+            long address = touched[i];
+            // Something collected before it may have removed it already
+            if (!PickupStruct.active(address)) continue;
+            PickupType type = PickupStruct.type(address);
+
+            if (PickupStruct.collected(address)) {
+                // Already paid out by collectAll(), it only had to get here
+                removeLocal(address);
+            } else if (isBank(type, address)) {
+                cashBank(type);
+                removeLocal(address);
+            } else {
+                type.onTouch(address);
+                if (type.canCollect(address)) {
+                    type.onCollect(address);
+                    removeLocal(address);
+                }
+            }
+        }
+        touchedCount = 0;
+    }
+
+    /**
+     * Moves the first {@code count} pickups in {@link PickupPool#pulled pulled} towards ({@code targetX}, {@code targetY}).<br>
+     * Each run of pickups of the same type is handed to {@link PickupBehavior#pullAll(long[], int, int, float, float, float) pullAll()} at once.
+     */
+    private void pullQueued(int count, float targetX, float targetY, float delta) {
+        long[] queue = pulled;
+        for (int start = 0; start < count; ) {
+            PickupType type = PickupStruct.type(queue[start]);
+            int end = start + 1;
+            while (end < count && PickupStruct.type(queue[end]) == type) end++;
+            type.pullAll(queue, start, end - start, targetX, targetY, delta);
+            start = end;
+        }
+
+        for (int i = 0; i < count; i++) {
+            long address = queue[i];
+            if (PickupStruct.beingPulled(address)) {
+                PickupStruct.timer(address, PickupStruct.timer(address) + delta);
             } else {
-                PickupStruct.beingPulled(address, false);
+                PickupStruct.beingPulled(address, true);
                 PickupStruct.timer(address, 0);
             }
-        });
+            grid.move(slot(address), PickupStruct.x(address), PickupStruct.y(address));
+        }
+    }
+
+    /**
+     * Fills {@link PickupPool#distances distances} with the squared distance of each active slot to ({@code px}, {@code py}).
+     */
+    private void updateDistances(float px, float py) {
+        float[] d = distances;
+        if (layout == Layout.STRUCT_OF_ARRAYS) {
+            // Coordinates are contiguous, so copy them out and run one flat loop the JIT can vectorize.
+            // Inactive slots get a garbage distance, but they're never read.
+            float[] x = xs, y = ys;
+            PickupStruct.copyX(address(0), x, POOL_SIZE);
+            PickupStruct.copyY(address(0), y, POOL_SIZE);
+            for (int i = 0; i < POOL_SIZE; i++) {
+                float dx = x[i] - px;
+                float dy = y[i] - py;
+                d[i] = dx*dx + dy*dy;
+            }
+        } else {
+            for (int i = usedPickups - 1; i >= 0; i--) {
+                int slot = activeSlots[i];
+                long address = address(slot);
+                float dx = PickupStruct.x(address) - px;
+                float dy = PickupStruct.y(address) - py;
+                d[slot] = dx*dx + dy*dy;
+            }
+        }
+    }
+
+    /**
+     * Remembers the current positions of pickups in this pool so rendering can interpolate from them.
+     * @see PickupPool#storePositions()
+     */
+    public void storePositionsLocal() {
+        if (layout == Layout.STRUCT_OF_ARRAYS) {
+            // Inactive slots are copied as well, but spawning overwrites them anyway
+            PickupStruct.storePositions(address(0), POOL_SIZE);
+        } else {
+            for (int i = usedPickups - 1; i >= 0; i--) {
+                PickupStruct.storePosition(address(activeSlots[i]));
+            }
+        }
     }
 
     /**
-     * Renders pickups in this pool onto {@code sb}.
+     * Renders pickups in this pool that are on screen onto {@code sb} at their current positions.
      * @param sb The {@link SpriteBatch} to draw onto.
      */
     public void renderLocal(SpriteBatch sb) {
-        double pullRange = AbstractSurvivorPlayer.PICKUP_PULL_RANGE * SurvivorDungeon.player.pickupRangeMultiplier;
-        float playerX = SurvivorDungeon.player.basePlayer.hb.cX;
-        float playerY = SurvivorDungeon.player.basePlayer.hb.cY;
-
-        forEachLocal(address -> {
-            PickupType type = PickupStruct.type(address);
-            if (type.image != null) {
-                if (type.compressable) {
-                    AbstractPickup.setColorForCompression(sb, PickupStruct.compression(address));
-                }
+        renderLocal(sb, 1f);
+    }
 
-                double rotation = PickupStruct.rotation(address);
-                float dx = playerX - PickupStruct.x(address);
-                float dy = playerY - PickupStruct.y(address);
-                // If the pickup doesn't have any initial rotation, can be pulled and is in the player's pull range
-                if (rotation == 0 && !PickupStruct.noPull(address) && dx*dx + dy*dy <= pullRange*pullRange) {
-                    // Rotate depending on how far away from the player the pickup is
-                    rotation = (1f - Math.abs(dx)/pullRange) * AbstractPickup.PULL_ROTATION;
-                    if (dx > 0) rotation *= -1;
-                }
+    /**
+     * Renders pickups in this pool that are on screen onto {@code sb}, {@code alpha} of the way between their positions at the start of the last tick and their current ones.
+     * @param sb The {@link SpriteBatch} to draw onto.
+     * @param alpha How far into the next tick the frame is, from 0 to 1.
+     */
+    public void renderLocal(SpriteBatch sb, float alpha) {
+        renderer.begin(alpha);
+        queueRender();
+        renderer.end(sb);
+    }
 
-                Texture t = type.image.getTexture();
-                sb.draw(new TextureRegion(type.image), PickupStruct.x(address), PickupStruct.drawY(address, type.bobDistance),
-                        t.getWidth()/2f, t.getHeight()/2f,
-                        t.getWidth(), t.getHeight(),
-                        PickupStruct.scale(address) * Settings.scale, PickupStruct.scale(address) * Settings.scale,
-                        (float)rotation);
-            }
-        });
+    /**
+     * Adds all pickups in this pool to {@link PickupPool#renderer renderer}.
+     */
+    private void queueRender() {
+        for (int i = usedPickups - 1; i >= 0; i--) {
+            renderer.add(address(activeSlots[i]));
+        }
     }
 
     /**
@@ -610,9 +1237,12 @@ public class PickupPool {
      * @param y The y coordinate to move by.
      */
     public void moveLocal(float x, float y) {
-        forEachLocal(address -> {
+        for (int i = usedPickups - 1; i >= 0; i--) {
+            int slot = activeSlots[i];
+            long address = address(slot);
             PickupStruct.x(address, PickupStruct.x(address) + x);
             PickupStruct.y(address, PickupStruct.y(address) + y);
-        });
+            grid.move(slot, PickupStruct.x(address), PickupStruct.y(address));
+        }
     }
 }
@@ -0,0 +1,169 @@
+package SpireSurvivors.pickups;
+
+import SpireSurvivors.dungeon.SurvivorDungeon;
+import SpireSurvivors.entity.AbstractSurvivorPlayer;
+import SpireSurvivors.pickups.AbstractPickup.PickupType;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.megacrit.cardcrawl.core.Settings;
+
+/**
+ * Draws pickups in bulk.<br>
+ * Each pickup is written as a quad straight into a vertex array, one array per type and color tier,
+ * and each array goes to the batch in a single call. The color is part of the vertices,
+ * so the batch color is never touched, and nothing is allocated once the arrays have grown to fit.
+ * Pickups outside of {@link SurvivorDungeon#view} are skipped before any of that.
+ */
+public class PickupRenderer {
+    /**
+     * The amount of floats {@link SpriteBatch} uses per sprite: 4 corners of x, y, color, u, v
+     */
+    private static final int SPRITE_SIZE = 20;
+
+    /**
+     * Vertex data, indexed by {@code type.id * COLOR_TIERS + tier}
+     */
+    private FloatArray[] buckets = new FloatArray[AbstractPickup.COLOR_TIERS * 2];
+    /**
+     * The indices of all non-empty buckets
+     */
+    private final IntArray usedBuckets = new IntArray();
+
+    private float playerX, playerY, pullRange;
+    private float alpha = 1f;
+    private float minX, minY, maxX, maxY;
+    private int culled = 0;
+
+    /**
+     * Starts collecting pickups for a new frame, drawn at their current positions.
+     */
+    public void begin() {
+        begin(1f);
+    }
+
+    /**
+     * Starts collecting pickups for a new frame.
+     * @param alpha How far into the next tick the frame is, from 0 to 1.
+     *              Pickups are drawn this far between their positions at the start of the last tick and their current ones.
+     */
+    public void begin(float alpha) {
+        this.alpha = alpha;
+        playerX = SurvivorDungeon.player.basePlayer.hb.cX;
+        playerY = SurvivorDungeon.player.basePlayer.hb.cY;
+        pullRange = AbstractSurvivorPlayer.PICKUP_PULL_RANGE * SurvivorDungeon.player.pickupRangeMultiplier;
+        Rectangle view = SurvivorDungeon.view;
+        minX = view.x;
+        minY = view.y;
+        maxX = view.x + view.width;
+        maxY = view.y + view.height;
+        culled = 0;
+    }
+
+    /**
+     * @return How many pickups were skipped for being off screen since the last {@link PickupRenderer#begin(float) begin()}.
+     */
+    public int culled() {
+        return culled;
+    }
+
+    /**
+     * Queues the pickup at {@code address} to be drawn.
+     * @param address A pointer to an instance of {@link PickupStruct}.
+     */
+    public void add(long address) {
+        float x = PickupStruct.drawX(address, alpha);
+        // Culling and the pull rotation go by where the pickup lies, without its bob
+        float y = MathUtils.lerp(PickupStruct.lastY(address), PickupStruct.y(address), alpha);
+        if (x < minX || x > maxX || y < minY || y > maxY) {
+            culled++;
+            return;
+        }
+        PickupType type = PickupStruct.type(address);
+        TextureRegion region = type.image;
+        if (region == null) return;
+
+        int tier = 0;
+        float color = Color.WHITE_FLOAT_BITS;
+        if (type.compressable) {
+            int compression = PickupStruct.compression(address);
+            tier = Math.min(compression, AbstractPickup.COLOR_TIERS - 1);
+            color = AbstractPickup.colorBitsForCompression(compression);
+        }
+
+        float rotation = PickupStruct.rotation(address);
+        // If the pickup doesn't have any initial rotation, can be pulled and is in the player's pull range
+        if (rotation == 0 && !PickupStruct.noPull(address)) {
+            float dx = playerX - x;
+            float dy = playerY - y;
+            if (dx*dx + dy*dy <= pullRange*pullRange) {
+                // Rotate depending on how far away from the player the pickup is
+                rotation = (1f - Math.abs(dx)/pullRange) * AbstractPickup.PULL_ROTATION;
+                if (dx > 0) rotation *= -1;
+            }
+        }
+
+        // Same corners SpriteBatch.draw() would produce with the origin in the center
+        float width = region.getRegionWidth();
+        float height = region.getRegionHeight();
+        float scale = PickupStruct.scale(address) * Settings.scale;
+        float centerX = x + width/2f;
+        float centerY = PickupStruct.drawY(address, type.bobDistance, alpha) + height/2f;
+        float halfWidth = width/2f * scale;
+        float halfHeight = height/2f * scale;
+        float cos = MathUtils.cosDeg(rotation);
+        float sin = MathUtils.sinDeg(rotation);
+        float ax = cos * halfWidth, ay = sin * halfWidth;
+        float bx = sin * halfHeight, by = cos * halfHeight;
+        float x1 = -ax + bx, y1 = -ay - by;
+        float x2 = -ax - bx, y2 = -ay + by;
+
+        float u = region.getU(), v = region.getV2();
+        float u2 = region.getU2(), v2 = region.getV();
+
+        FloatArray bucket = bucket(type.id * AbstractPickup.COLOR_TIERS + tier);
+        float[] vertices = bucket.ensureCapacity(SPRITE_SIZE);
+        int i = bucket.size;
+        bucket.size += SPRITE_SIZE;
+
+        vertices[i++] = centerX + x1; vertices[i++] = centerY + y1; vertices[i++] = color; vertices[i++] = u;  vertices[i++] = v;
+        vertices[i++] = centerX + x2; vertices[i++] = centerY + y2; vertices[i++] = color; vertices[i++] = u;  vertices[i++] = v2;
+        vertices[i++] = centerX - x1; vertices[i++] = centerY - y1; vertices[i++] = color; vertices[i++] = u2; vertices[i++] = v2;
+        vertices[i++] = centerX - x2; vertices[i++] = centerY - y2; vertices[i++] = color; vertices[i]   = u2; vertices[i + 1] = v;
+    }
+
+    /**
+     * Draws everything queued since {@link PickupRenderer#begin() begin()} onto {@code sb},
+     * grouped by type and with higher compression levels on top.
+     * @param sb The {@link SpriteBatch} to draw onto.
+     */
+    public void end(SpriteBatch sb) {
+        usedBuckets.sort();
+        for (int i = 0; i < usedBuckets.size; i++) {
+            int index = usedBuckets.get(i);
+            FloatArray bucket = buckets[index];
+            PickupType type = PickupType.deserialize(index / AbstractPickup.COLOR_TIERS);
+            sb.draw(type.image.getTexture(), bucket.items, 0, bucket.size);
+            bucket.clear();
+        }
+        usedBuckets.clear();
+    }
+
+    private FloatArray bucket(int index) {
+        if (index >= buckets.length) {
+            FloatArray[] grown = new FloatArray[Math.max(buckets.length * 2, index + 1)];
+            System.arraycopy(buckets, 0, grown, 0, buckets.length);
+            buckets = grown;
+        }
+        FloatArray bucket = buckets[index];
+        if (bucket == null) {
+            bucket = buckets[index] = new FloatArray(SPRITE_SIZE * 64);
+        }
+        if (bucket.size == 0) usedBuckets.add(index);
+        return bucket;
+    }
+}
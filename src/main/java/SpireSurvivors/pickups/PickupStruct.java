@@ -8,6 +8,8 @@ import sun.misc.Unsafe;
 
 /**
  * Defines methods for interacting with a pickup structure in memory.<br>
+ * Pickups are either stored as consecutive structs, or spread over per-field arrays when the pointer is tagged with
+ * {@link PickupStruct#SOA_TAG SOA_TAG}. All accessors handle both.<br>
  * Use {@link PickupPool} when possible.
  * @see AbstractPickup
  */
@@ -22,7 +24,7 @@ public final class PickupStruct {
      * The total size of the pickup struct.<br>
      * Equal to the biggest {@code OFFSET} value + the size of the field at that offset.
      */
-    public final static int SIZE = 0x20;
+    public final static int SIZE = 0x28;
 
     // We define the offsets of fields in the struct manually
     private final static int OFFSET_X = 0x0;
@@ -37,6 +39,37 @@ public final class PickupStruct {
         public final static int FLAG_NO_BOB = 1 << 1;
         public final static int FLAG_BEING_PULLED = 1 << 2;
         public final static int FLAG_PERSISTENT = 1 << 3;
+        public final static int FLAG_COLLECTED = 1 << 4;
+    // Where the pickup was at the start of the tick, so rendering can interpolate
+    private final static int OFFSET_LAST_X = 0x20;
+    private final static int OFFSET_LAST_Y = 0x24;
+
+    /**
+     * Set on pointers into a struct-of-arrays block.<br>
+     * In that layout each field is stored as its own array of {@link PickupStruct#SOA_LENGTH SOA_LENGTH} values,
+     * and the untagged pointer of the n-th pickup is the start of the block + {@code n * 4}.
+     * User space addresses never have the sign bit set, so the tag can't collide with a real pointer.
+     */
+    public final static long SOA_TAG = Long.MIN_VALUE;
+    /**
+     * The amount of pickups in a struct-of-arrays block, and so the length of each of its field arrays.
+     */
+    public final static int SOA_LENGTH = PickupPool.POOL_SIZE;
+    /**
+     * The distance between the pointers of two consecutive pickups in a struct-of-arrays block.
+     */
+    public final static int SOA_STRIDE = 4;
+
+    /**
+     * Returns the location of the field at {@code offset} of the pickup at {@code baseAddress}, respecting its layout.
+     * @param baseAddress A pointer to an instance of {@code PickupStruct}, possibly tagged with {@link PickupStruct#SOA_TAG SOA_TAG}.
+     * @param offset The offset of the field within the struct.
+     * @return The raw address of the field.
+     */
+    @ForceInline
+    private static long field(long baseAddress, int offset) {
+        return baseAddress >= 0 ? baseAddress + offset : (baseAddress & ~SOA_TAG) + (long)offset * SOA_LENGTH;
+    }
 
     /**
      * Allocates memory for a {@code PickupStruct}.<br>
@@ -74,7 +107,49 @@ public final class PickupStruct {
      */
     @ForceInline
     public static void clear(long address) {
-        unsafe.setMemory(address, SIZE, (byte)0);
+        if (address >= 0) {
+            unsafe.setMemory(address, SIZE, (byte)0);
+        } else {
+            for (int offset = 0; offset < SIZE; offset += 4) {
+                unsafe.putInt(field(address, offset), 0);
+            }
+        }
+    }
+
+    /**
+     * Copies all data of the pickup at {@code from} over the pickup at {@code to}. Either may be in either layout.
+     * @param from A pointer to the pickup to copy.
+     * @param to A pointer to the pickup to overwrite.
+     */
+    public static void copy(long from, long to) {
+        for (int offset = 0; offset < SIZE; offset += 4) {
+            unsafe.putInt(field(to, offset), unsafe.getInt(field(from, offset)));
+        }
+    }
+
+    /**
+     * Copies the x coordinates of {@code count} consecutive pickups in a struct-of-arrays block into {@code dest}.
+     * @param baseAddress A tagged pointer to the first pickup to copy.
+     * @param dest The array to copy into, starting at index 0.
+     * @param count The amount of pickups to copy.
+     */
+    public static void copyX(long baseAddress, float[] dest, int count) {
+        copyField(baseAddress, OFFSET_X, dest, count);
+    }
+
+    /**
+     * Copies the y coordinates of {@code count} consecutive pickups in a struct-of-arrays block into {@code dest}.
+     * @param baseAddress A tagged pointer to the first pickup to copy.
+     * @param dest The array to copy into, starting at index 0.
+     * @param count The amount of pickups to copy.
+     */
+    public static void copyY(long baseAddress, float[] dest, int count) {
+        copyField(baseAddress, OFFSET_Y, dest, count);
+    }
+
+    private static void copyField(long baseAddress, int offset, float[] dest, int count) {
+        if (baseAddress >= 0) throw new IllegalArgumentException("Only struct-of-arrays fields are contiguous");
+        unsafe.copyMemory(null, field(baseAddress, offset), dest, Unsafe.ARRAY_FLOAT_BASE_OFFSET, (long)count * 4);
     }
 
     /**
@@ -84,7 +159,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static float x(long baseAddress) {
-        return unsafe.getFloat(baseAddress + OFFSET_X);
+        return unsafe.getFloat(field(baseAddress, OFFSET_X));
     }
 
     /**
@@ -94,7 +169,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static void x(long baseAddress, float value) {
-        unsafe.putFloat(baseAddress + OFFSET_X, value);
+        unsafe.putFloat(field(baseAddress, OFFSET_X), value);
     }
 
     /**
@@ -104,7 +179,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static float y(long baseAddress) {
-        return unsafe.getFloat(baseAddress + OFFSET_Y);
+        return unsafe.getFloat(field(baseAddress, OFFSET_Y));
     }
 
     /**
@@ -114,7 +189,48 @@ public final class PickupStruct {
      */
     @ForceInline
     public static void y(long baseAddress, float value) {
-        unsafe.putFloat(baseAddress + OFFSET_Y, value);
+        unsafe.putFloat(field(baseAddress, OFFSET_Y), value);
+    }
+
+    /**
+     * Returns the x coordinate the pickup located at {@code baseAddress} had at the start of the tick.
+     * @param baseAddress A pointer to an instance of {@code PickupStruct}.
+     * @return The last x coordinate of the pickup.
+     */
+    @ForceInline
+    public static float lastX(long baseAddress) {
+        return unsafe.getFloat(field(baseAddress, OFFSET_LAST_X));
+    }
+
+    /**
+     * Returns the y coordinate the pickup located at {@code baseAddress} had at the start of the tick.
+     * @param baseAddress A pointer to an instance of {@code PickupStruct}.
+     * @return The last y coordinate of the pickup.
+     */
+    @ForceInline
+    public static float lastY(long baseAddress) {
+        return unsafe.getFloat(field(baseAddress, OFFSET_LAST_Y));
+    }
+
+    /**
+     * Remembers the current coordinates of the pickup located at {@code baseAddress} as its last ones.
+     * @param baseAddress A pointer to an instance of {@code PickupStruct}.
+     */
+    @ForceInline
+    public static void storePosition(long baseAddress) {
+        unsafe.putFloat(field(baseAddress, OFFSET_LAST_X), x(baseAddress));
+        unsafe.putFloat(field(baseAddress, OFFSET_LAST_Y), y(baseAddress));
+    }
+
+    /**
+     * Remembers the current coordinates of {@code count} consecutive pickups in a struct-of-arrays block as their last ones.
+     * @param baseAddress A tagged pointer to the first pickup.
+     * @param count The amount of pickups.
+     */
+    public static void storePositions(long baseAddress, int count) {
+        if (baseAddress >= 0) throw new IllegalArgumentException("Only struct-of-arrays fields are contiguous");
+        unsafe.copyMemory(field(baseAddress, OFFSET_X), field(baseAddress, OFFSET_LAST_X), (long)count * 4);
+        unsafe.copyMemory(field(baseAddress, OFFSET_Y), field(baseAddress, OFFSET_LAST_Y), (long)count * 4);
     }
 
     /**
@@ -124,7 +240,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static float scale(long baseAddress) {
-        return unsafe.getFloat(baseAddress + OFFSET_SCALE);
+        return unsafe.getFloat(field(baseAddress, OFFSET_SCALE));
     }
 
     /**
@@ -134,7 +250,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static void scale(long baseAddress, float value) {
-        unsafe.putFloat(baseAddress + OFFSET_SCALE, value);
+        unsafe.putFloat(field(baseAddress, OFFSET_SCALE), value);
     }
 
     /**
@@ -144,7 +260,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static float rotation(long baseAddress) {
-        return unsafe.getFloat(baseAddress + OFFSET_ROT);
+        return unsafe.getFloat(field(baseAddress, OFFSET_ROT));
     }
 
     /**
@@ -154,7 +270,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static void rotation(long baseAddress, float value) {
-        unsafe.putFloat(baseAddress + OFFSET_ROT, value);
+        unsafe.putFloat(field(baseAddress, OFFSET_ROT), value);
     }
 
     /**
@@ -164,7 +280,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static float timer(long baseAddress) {
-        return unsafe.getFloat(baseAddress + OFFSET_TIMER);
+        return unsafe.getFloat(field(baseAddress, OFFSET_TIMER));
     }
 
     /**
@@ -174,7 +290,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static void timer(long baseAddress, float value) {
-        unsafe.putFloat(baseAddress + OFFSET_TIMER, value);
+        unsafe.putFloat(field(baseAddress, OFFSET_TIMER), value);
     }
 
     /**
@@ -184,7 +300,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static PickupType type(long baseAddress) {
-        return PickupType.deserialize(unsafe.getInt(baseAddress + OFFSET_TYPE));
+        return PickupType.deserialize(unsafe.getInt(field(baseAddress, OFFSET_TYPE)));
     }
 
     /**
@@ -194,7 +310,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static void type(long baseAddress, PickupType value) {
-        unsafe.putInt(baseAddress + OFFSET_TYPE, PickupType.serialize(value));
+        unsafe.putInt(field(baseAddress, OFFSET_TYPE), PickupType.serialize(value));
     }
 
     /**
@@ -204,7 +320,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static boolean active(long baseAddress) {
-        return unsafe.getInt(baseAddress + OFFSET_TYPE) != 0;
+        return unsafe.getInt(field(baseAddress, OFFSET_TYPE)) != 0;
     }
 
     /**
@@ -213,7 +329,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static void deactivate(long baseAddress) {
-        unsafe.putInt(baseAddress + OFFSET_TYPE, 0);
+        unsafe.putInt(field(baseAddress, OFFSET_TYPE), 0);
     }
 
     /**
@@ -223,7 +339,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static int compression(long baseAddress) {
-        return unsafe.getInt(baseAddress + OFFSET_COMPRESSION);
+        return unsafe.getInt(field(baseAddress, OFFSET_COMPRESSION));
     }
 
     /**
@@ -233,7 +349,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static void compression(long baseAddress, int value) {
-        unsafe.putInt(baseAddress + OFFSET_COMPRESSION, value);
+        unsafe.putInt(field(baseAddress, OFFSET_COMPRESSION), value);
     }
 
     /**
@@ -246,7 +362,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static int flags(long baseAddress) {
-        return unsafe.getInt(baseAddress + OFFSET_FLAGS);
+        return unsafe.getInt(field(baseAddress, OFFSET_FLAGS));
     }
 
     /**
@@ -259,7 +375,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static void flags(long baseAddress, int value) {
-        unsafe.putInt(baseAddress + OFFSET_FLAGS, value);
+        unsafe.putInt(field(baseAddress, OFFSET_FLAGS), value);
     }
 
     /**
@@ -269,7 +385,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static boolean noPull(long baseAddress) {
-        return (unsafe.getInt(baseAddress + OFFSET_FLAGS) & FLAG_NO_PULL) != 0;
+        return (unsafe.getInt(field(baseAddress, OFFSET_FLAGS)) & FLAG_NO_PULL) != 0;
     }
 
     /**
@@ -279,9 +395,9 @@ public final class PickupStruct {
      */
     @ForceInline
     public static void noPull(long baseAddress, boolean value) {
-        int x = unsafe.getInt(baseAddress + OFFSET_FLAGS);
+        int x = unsafe.getInt(field(baseAddress, OFFSET_FLAGS));
         x = value ? x | FLAG_NO_PULL : x & ~FLAG_NO_PULL;
-        unsafe.putInt(baseAddress + OFFSET_FLAGS, x);
+        unsafe.putInt(field(baseAddress, OFFSET_FLAGS), x);
     }
 
     /**
@@ -291,7 +407,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static boolean noBob(long baseAddress) {
-        return (unsafe.getInt(baseAddress + OFFSET_FLAGS) & FLAG_NO_BOB) != 0;
+        return (unsafe.getInt(field(baseAddress, OFFSET_FLAGS)) & FLAG_NO_BOB) != 0;
     }
 
     /**
@@ -301,9 +417,9 @@ public final class PickupStruct {
      */
     @ForceInline
     public static void noBob(long baseAddress, boolean value) {
-        int x = unsafe.getInt(baseAddress + OFFSET_FLAGS);
+        int x = unsafe.getInt(field(baseAddress, OFFSET_FLAGS));
         x = value ? x | FLAG_NO_BOB : x & ~FLAG_NO_BOB;
-        unsafe.putInt(baseAddress + OFFSET_FLAGS, x);
+        unsafe.putInt(field(baseAddress, OFFSET_FLAGS), x);
     }
 
     /**
@@ -313,7 +429,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static boolean beingPulled(long baseAddress) {
-        return (unsafe.getInt(baseAddress + OFFSET_FLAGS) & FLAG_BEING_PULLED) != 0;
+        return (unsafe.getInt(field(baseAddress, OFFSET_FLAGS)) & FLAG_BEING_PULLED) != 0;
     }
 
     /**
@@ -323,9 +439,9 @@ public final class PickupStruct {
      */
     @ForceInline
     public static void beingPulled(long baseAddress, boolean value) {
-        int x = unsafe.getInt(baseAddress + OFFSET_FLAGS);
+        int x = unsafe.getInt(field(baseAddress, OFFSET_FLAGS));
         x = value ? x | FLAG_BEING_PULLED : x & ~FLAG_BEING_PULLED;
-        unsafe.putInt(baseAddress + OFFSET_FLAGS, x);
+        unsafe.putInt(field(baseAddress, OFFSET_FLAGS), x);
     }
 
     /**
@@ -339,7 +455,7 @@ public final class PickupStruct {
      */
     @ForceInline
     public static boolean persistent(long baseAddress) {
-        return (unsafe.getInt(baseAddress + OFFSET_FLAGS) & FLAG_PERSISTENT) != 0;
+        return (unsafe.getInt(field(baseAddress, OFFSET_FLAGS)) & FLAG_PERSISTENT) != 0;
     }
 
     /**
@@ -353,9 +469,34 @@ public final class PickupStruct {
      */
     @ForceInline
     public static void persistent(long baseAddress, boolean value) {
-        int x = unsafe.getInt(baseAddress + OFFSET_FLAGS);
+        int x = unsafe.getInt(field(baseAddress, OFFSET_FLAGS));
         x = value ? x | FLAG_PERSISTENT : x & ~FLAG_PERSISTENT;
-        unsafe.putInt(baseAddress + OFFSET_FLAGS, x);
+        unsafe.putInt(field(baseAddress, OFFSET_FLAGS), x);
+    }
+
+    /**
+     * Returns whether the pickup located at {@code baseAddress} has already been collected.<br>
+     * Collected pickups fly to the player and disappear on touch without being collected again.
+     * @param baseAddress A pointer to an instance of {@code PickupStruct}.
+     * @return Whether the pickup has been collected.
+     * @see PickupPool#collectAll(boolean) PickupPool.collectAll()
+     */
+    @ForceInline
+    public static boolean collected(long baseAddress) {
+        return (unsafe.getInt(field(baseAddress, OFFSET_FLAGS)) & FLAG_COLLECTED) != 0;
+    }
+
+    /**
+     * Sets whether the pickup located at {@code baseAddress} has already been collected.
+     * @param baseAddress A pointer to an instance of {@code PickupStruct}.
+     * @param value Whether the pickup has been collected.
+     * @see PickupPool#collectAll(boolean) PickupPool.collectAll()
+     */
+    @ForceInline
+    public static void collected(long baseAddress, boolean value) {
+        int x = unsafe.getInt(field(baseAddress, OFFSET_FLAGS));
+        x = value ? x | FLAG_COLLECTED : x & ~FLAG_COLLECTED;
+        unsafe.putInt(field(baseAddress, OFFSET_FLAGS), x);
     }
 
     /**
@@ -371,6 +512,32 @@ public final class PickupStruct {
         return PickupStruct.y(baseAddress) + MathUtils.sin(PickupStruct.timer(baseAddress)) * bobDistance;
     }
 
+    /**
+     * Returns the x coordinate the pickup located at {@code baseAddress} should be drawn at,
+     * {@code alpha} of the way from its {@link PickupStruct#lastX(long) last} to its current x coordinate.
+     * @param baseAddress A pointer to an instance of {@code PickupStruct}.
+     * @param alpha How far into the next tick the frame is, from 0 to 1.
+     * @return The x coordinate the pickup should be drawn at.
+     */
+    @ForceInline
+    public static float drawX(long baseAddress, float alpha) {
+        return MathUtils.lerp(PickupStruct.lastX(baseAddress), PickupStruct.x(baseAddress), alpha);
+    }
+
+    /**
+     * Returns the y coordinate the pickup located at {@code baseAddress} should be drawn at,
+     * {@code alpha} of the way from its {@link PickupStruct#lastY(long) last} to its current y coordinate, plus its bob.
+     * @param baseAddress A pointer to an instance of {@code PickupStruct}.
+     * @param bobDistance How much the pickup should bob up and down.
+     * @param alpha How far into the next tick the frame is, from 0 to 1.
+     * @return The y coordinate the pickup should be drawn at.
+     */
+    @ForceInline
+    public static float drawY(long baseAddress, float bobDistance, float alpha) {
+        return MathUtils.lerp(PickupStruct.lastY(baseAddress), PickupStruct.y(baseAddress), alpha)
+                + MathUtils.sin(PickupStruct.timer(baseAddress)) * bobDistance;
+    }
+
     /**
      * Returns the value of the pickup located at {@code baseAddress}.
      * @param baseAddress A pointer to an instance of {@code PickupStruct}.
@@ -2,6 +2,10 @@ package SpireSurvivors.ui;
 
 import SpireSurvivors.SpireSurvivorsMod;
 import SpireSurvivors.dungeon.SurvivorDungeon;
+import SpireSurvivors.horde.HordePool;
+import SpireSurvivors.pickups.AbstractPickup;
+import SpireSurvivors.pickups.PickupArena;
+import SpireSurvivors.pickups.PickupPool;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.megacrit.cardcrawl.core.CardCrawlGame;
@@ -32,5 +36,29 @@ public class SurvivorUI {
         //y -= DELTA_Y;
 
         //TODO Render weapons and relics once those are coded
+
+        if (Settings.isDebug) {
+            renderDebug(sb, y - DELTA_Y * 2);
+        }
+    }
+
+    private void renderDebug(SpriteBatch sb, float y) {
+        PickupArena arena = PickupPool.arena();
+        if (arena != null) {
+            FontHelper.renderFontLeft(sb, FontHelper.tipBodyFont, arena.toString(), DRAW_X, y, Color.LIGHT_GRAY);
+            y -= DELTA_Y;
+        }
+        FontHelper.renderFontLeft(sb, FontHelper.tipBodyFont, "Pickups: " + PickupPool.livePickups() + "/" + SpireSurvivorsMod.maxPickups
+                + " (banked " + PickupPool.bankedValue(AbstractPickup.PickupType.XP) + " XP)", DRAW_X, y, Color.LIGHT_GRAY);
+        y -= DELTA_Y;
+        FontHelper.renderFontLeft(sb, FontHelper.tipBodyFont, "Monsters: " + SurvivorDungeon.monsters.size()
+                + " (horde " + SurvivorDungeon.horde.size() + "/" + HordePool.CAPACITY + ")", DRAW_X, y, Color.LIGHT_GRAY);
+        y -= DELTA_Y;
+        FontHelper.renderFontLeft(sb, FontHelper.tipBodyFont, "Simulation: " + SurvivorDungeon.tierCounts[0] + " near, "
+                + SurvivorDungeon.tierCounts[1] + " mid, " + SurvivorDungeon.tierCounts[2] + " far", DRAW_X, y, Color.LIGHT_GRAY);
+        y -= DELTA_Y;
+        FontHelper.renderFontLeft(sb, FontHelper.tipBodyFont, "Culled: " + SurvivorDungeon.renderQueue.culledMonsters() + " monsters, "
+                + PickupPool.renderer.culled() + " pickups, " + SurvivorDungeon.renderQueue.culledEffects() + " effects", DRAW_X, y, Color.LIGHT_GRAY);
+        y -= DELTA_Y;
     }
 }
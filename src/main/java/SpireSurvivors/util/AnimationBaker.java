@@ -0,0 +1,209 @@
+package SpireSurvivors.util;
+
+import SpireSurvivors.SpireSurvivorsMod;
+import basemod.ReflectionHacks;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.Skeleton;
+import com.megacrit.cardcrawl.core.AbstractCreature;
+import com.megacrit.cardcrawl.core.CardCrawlGame;
+import com.megacrit.cardcrawl.core.Settings;
+import com.megacrit.cardcrawl.monsters.AbstractMonster;
+
+import java.util.HashMap;
+
+/**
+ * Renders the idle and walk loops of monsters into a sprite sheet once, so crowds of them can be drawn as plain sprites
+ * instead of posing and drawing a skeleton for every single one, every frame.<br>
+ * Animations are baked per monster class, the first time one of its monsters asks for it.
+ * Whether a class is drawn baked or live can be set per class, and defaults to {@link SpireSurvivorsMod#bakedMonsters bakedMonsters}.
+ */
+public class AnimationBaker {
+    /**
+     * How many frames of each loop are baked
+     */
+    public static final int FRAMES_PER_LOOP = 16;
+    /**
+     * The widest a sheet may get, in pixels
+     */
+    public static final int MAX_SHEET_WIDTH = 4096;
+    public static final String IDLE = "idle";
+    public static final String WALK = "walk";
+
+    private static final HashMap<Class<? extends AbstractMonster>, BakedAnimation> baked = new HashMap<>();
+    private static final HashMap<Class<? extends AbstractMonster>, Boolean> modes = new HashMap<>();
+
+    /**
+     * The baked loops of one kind of monster. Frames are the monster's hitbox twice over,
+     * with the monster standing at {@link BakedAnimation#originX originX}, {@link BakedAnimation#originY originY},
+     * drawn at the size it has on screen.
+     */
+    public static class BakedAnimation {
+        public final TextureRegion[] idle;
+        /**
+         * The same frames as {@link BakedAnimation#idle idle} if the monster has no walk animation
+         */
+        public final TextureRegion[] walk;
+        /**
+         * How long each frame of a loop is shown, in seconds
+         */
+        public final float idleFrameDuration, walkFrameDuration;
+        public final float originX, originY;
+
+        BakedAnimation(TextureRegion[] idle, float idleFrameDuration, TextureRegion[] walk, float walkFrameDuration, float originX, float originY) {
+            this.idle = idle;
+            this.walk = walk;
+            this.idleFrameDuration = idleFrameDuration;
+            this.walkFrameDuration = walkFrameDuration;
+            this.originX = originX;
+            this.originY = originY;
+        }
+
+        /**
+         * @return The frame of the idle or walk loop shown {@code time} seconds into it.
+         */
+        public TextureRegion frame(boolean walking, float time) {
+            TextureRegion[] loop = walking ? walk : idle;
+            float duration = walking ? walkFrameDuration : idleFrameDuration;
+            if (duration <= 0) return loop[0];
+            return loop[(int)(time / duration) % loop.length];
+        }
+    }
+
+    /**
+     * @return Whether monsters of {@code type} should be drawn from their baked animation.
+     */
+    public static boolean isBaked(Class<? extends AbstractMonster> type) {
+        Boolean mode = modes.get(type);
+        return mode != null ? mode : SpireSurvivorsMod.bakedMonsters;
+    }
+
+    /**
+     * Makes monsters of {@code type} be drawn baked or live, no matter what the config says.
+     */
+    public static void setBaked(Class<? extends AbstractMonster> type, boolean baked) {
+        modes.put(type, baked);
+    }
+
+    /**
+     * @return The baked animation of {@code m}'s class, or {@code null} if it hasn't been baked yet.
+     */
+    public static BakedAnimation get(AbstractMonster m) {
+        return baked.get(m.getClass());
+    }
+
+    /**
+     * Returns the baked animation of {@code m}'s class, baking it from {@code m} if that hasn't happened yet.<br>
+     * Baking draws through {@link CardCrawlGame#psb}, so this has to be called outside of rendering,
+     * and before {@code m} is moved, resized or hurt.
+     * @param m A monster of the class to bake. Its animation state is left alone.
+     * @return The baked animation.
+     */
+    public static BakedAnimation bake(AbstractMonster m) {
+        BakedAnimation animation = baked.get(m.getClass());
+        if (animation == null) {
+            animation = bakeMonster(m);
+            baked.put(m.getClass(), animation);
+        }
+        return animation;
+    }
+
+    private static BakedAnimation bakeMonster(AbstractMonster m) {
+        int width = MathUtils.ceil(m.hb.width * 2f);
+        int height = MathUtils.ceil(m.hb.height * 2f);
+        float originX = width / 2f;
+        // Feet tend to reach a bit below the skeleton's origin
+        float originY = height / 8f;
+
+        Skeleton skeleton = ReflectionHacks.getPrivate(m, AbstractCreature.class, "skeleton");
+        boolean live = ReflectionHacks.getPrivate(m, AbstractCreature.class, "atlas") != null && skeleton != null;
+        String idleName = IDLE;
+        if (live) {
+            AnimationState.TrackEntry current = m.state.getCurrent(0);
+            if (current != null) idleName = current.getAnimation().getName();
+        }
+        boolean hasWalk = live && skeleton.getData().findAnimation(WALK) != null;
+        int idleFrames = live ? FRAMES_PER_LOOP : 1;
+        int walkFrames = hasWalk ? FRAMES_PER_LOOP : 0;
+
+        int columns = Math.max(1, Math.min(idleFrames + walkFrames, MAX_SHEET_WIDTH / width));
+        int rows = (idleFrames + walkFrames + columns - 1) / columns;
+        FrameBuffer fbo = ImageHelper.createBuffer(columns * width, rows * height);
+        Matrix4 projection = CardCrawlGame.psb.getProjectionMatrix().cpy();
+        CardCrawlGame.psb.setProjectionMatrix(new Matrix4().setToOrtho2D(0, 0, columns * width, rows * height));
+        ImageHelper.beginBuffer(fbo);
+        CardCrawlGame.psb.begin();
+
+        float idleFrameDuration = 0, walkFrameDuration = 0;
+        if (live) {
+            float skeletonX = skeleton.getX(), skeletonY = skeleton.getY();
+            boolean flipX = skeleton.getFlipX(), flipY = skeleton.getFlipY();
+            skeleton.setFlip(false, false);
+            idleFrameDuration = drawLoop(m, skeleton, idleName, 0, idleFrames, columns, width, height, originX, originY);
+            if (hasWalk) {
+                walkFrameDuration = drawLoop(m, skeleton, WALK, idleFrames, walkFrames, columns, width, height, originX, originY);
+            }
+            skeleton.setPosition(skeletonX, skeletonY);
+            skeleton.setFlip(flipX, flipY);
+            // Put the skeleton back into the pose of the monster's own animation state
+            skeleton.setToSetupPose();
+            m.state.apply(skeleton);
+            skeleton.updateWorldTransform();
+        } else {
+            Texture img = ReflectionHacks.getPrivate(m, AbstractMonster.class, "img");
+            if (img != null) {
+                float imgWidth = img.getWidth() * Settings.scale;
+                CardCrawlGame.psb.draw(img, originX - imgWidth / 2f, originY, imgWidth, img.getHeight() * Settings.scale);
+            }
+        }
+
+        CardCrawlGame.psb.end();
+        fbo.end();
+        CardCrawlGame.psb.setProjectionMatrix(projection);
+
+        TextureRegion[] idle = new TextureRegion[idleFrames];
+        for (int i = 0; i < idleFrames; i++) {
+            idle[i] = frameRegion(fbo, i, columns, width, height);
+        }
+        TextureRegion[] walk = idle;
+        if (hasWalk) {
+            walk = new TextureRegion[walkFrames];
+            for (int i = 0; i < walkFrames; i++) {
+                walk[i] = frameRegion(fbo, idleFrames + i, columns, width, height);
+            }
+        } else {
+            walkFrameDuration = idleFrameDuration;
+        }
+        return new BakedAnimation(idle, idleFrameDuration, walk, walkFrameDuration, originX, originY);
+    }
+
+    /**
+     * Draws {@code frames} evenly spaced poses of the looping animation {@code name}, starting at sheet cell {@code first}.
+     * Uses its own animation state, so the monster's doesn't move on.
+     * @return How long each frame is shown for.
+     */
+    private static float drawLoop(AbstractMonster m, Skeleton skeleton, String name, int first, int frames, int columns,
+                                  int width, int height, float originX, float originY) {
+        AnimationState state = new AnimationState(m.state.getData());
+        float duration = state.setAnimation(0, name, true).getAnimation().getDuration();
+        float step = duration / frames;
+        for (int i = 0; i < frames; i++) {
+            int cell = first + i;
+            skeleton.setToSetupPose();
+            state.apply(skeleton);
+            skeleton.setPosition((cell % columns) * width + originX, (cell / columns) * height + originY);
+            skeleton.updateWorldTransform();
+            AbstractCreature.sr.draw(CardCrawlGame.psb, skeleton);
+            state.update(step);
+        }
+        return step;
+    }
+
+    private static TextureRegion frameRegion(FrameBuffer fbo, int cell, int columns, int width, int height) {
+        return ImageHelper.getBufferRegion(fbo, (cell % columns) * width, (cell / columns) * height, width, height);
+    }
+}
@@ -0,0 +1,168 @@
+package SpireSurvivors.util;
+
+import java.util.Arrays;
+
+/**
+ * Pushes overlapping agents apart, so crowds chasing the same target spread out instead of stacking on one point.<br>
+ * Agents are added as circles every tick, bucketed into a {@link SlotGrid} and only checked against
+ * their closest cells, up to {@link CrowdSeparation#MAX_NEIGHBORS MAX_NEIGHBORS} neighbours each, so a tick costs O(n).
+ * Pushes are worked out from where everyone was before anyone moved, so the order agents were added in doesn't matter.
+ */
+public class CrowdSeparation {
+    /**
+     * The most neighbours a single agent is pushed away from per tick
+     */
+    public static final int MAX_NEIGHBORS = 8;
+
+    /**
+     * How much of an overlap is resolved per tick, from 0 to 1
+     */
+    public float strength = 0.5f;
+    /**
+     * How far an agent can be pushed in a single tick, relative to its radius
+     */
+    public float maxPush = 0.5f;
+
+    private SlotGrid grid;
+    private int capacity;
+    private int count = 0;
+    private float maxRadius = 0;
+    private float[] x, y, radius, pushX, pushY;
+
+    public CrowdSeparation(int capacity, float cellSize) {
+        this.capacity = capacity;
+        grid = new SlotGrid(capacity, cellSize);
+        x = new float[capacity];
+        y = new float[capacity];
+        radius = new float[capacity];
+        pushX = new float[capacity];
+        pushY = new float[capacity];
+    }
+
+    /**
+     * @return The amount of agents added since the last {@link CrowdSeparation#clear() clear()}.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Removes all agents.
+     */
+    public void clear() {
+        count = 0;
+        maxRadius = 0;
+        grid.clear();
+    }
+
+    /**
+     * Adds an agent centered on ({@code x}, {@code y}). Agents that can't be added anymore are never pushed.
+     * @return The index of the agent, or {@code -1} if there's no room left.
+     */
+    public int add(float x, float y, float radius) {
+        if (count >= capacity) return -1;
+        int i = count++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.radius[i] = radius;
+        pushX[i] = pushY[i] = 0;
+        maxRadius = Math.max(maxRadius, radius);
+        grid.add(i, x, y);
+        return i;
+    }
+
+    /**
+     * Works out how far every agent inside the given area should be pushed. Agents outside it stay put,
+     * but still push the ones inside.
+     */
+    public void solve(float minX, float minY, float maxX, float maxY) {
+        for (int i = 0; i < count; i++) {
+            if (x[i] < minX || x[i] > maxX || y[i] < minY || y[i] > maxY) continue;
+            separate(i);
+        }
+    }
+
+    /**
+     * Works out how far every agent should be pushed.
+     */
+    public void solve() {
+        for (int i = 0; i < count; i++) {
+            separate(i);
+        }
+    }
+
+    /**
+     * @return How far the agent at {@code index} should move along the x axis.
+     */
+    public float pushX(int index) {
+        return pushX[index];
+    }
+
+    /**
+     * @return How far the agent at {@code index} should move along the y axis.
+     */
+    public float pushY(int index) {
+        return pushY[index];
+    }
+
+    /**
+     * Makes room for at least {@code capacity} agents. Drops all agents if it has to grow.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= this.capacity) return;
+        this.capacity = Math.max(capacity, this.capacity * 2);
+        grid = new SlotGrid(this.capacity, grid.cellSize);
+        x = Arrays.copyOf(x, this.capacity);
+        y = Arrays.copyOf(y, this.capacity);
+        radius = Arrays.copyOf(radius, this.capacity);
+        pushX = Arrays.copyOf(pushX, this.capacity);
+        pushY = Arrays.copyOf(pushY, this.capacity);
+        clear();
+    }
+
+    private void separate(int i) {
+        float r = radius[i];
+        float reach = r + maxRadius;
+        int minX = grid.cell(x[i] - reach), maxX = grid.cell(x[i] + reach);
+        int minY = grid.cell(y[i] - reach), maxY = grid.cell(y[i] + reach);
+
+        float px = 0, py = 0;
+        int neighbors = 0;
+        search:
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                for (int j = grid.head(SlotGrid.key(cx, cy)); j != SlotGrid.NONE; j = grid.next(j)) {
+                    if (j == i) continue;
+                    float dx = x[i] - x[j];
+                    float dy = y[i] - y[j];
+                    float minDist = r + radius[j];
+                    float dist2 = dx*dx + dy*dy;
+                    if (dist2 >= minDist*minDist) continue;
+
+                    float dist = (float)Math.sqrt(dist2);
+                    if (dist < 0.0001f) {
+                        // Exactly on top of each other, so split them along an axis that depends on which one is which
+                        dx = i < j ? 1 : -1;
+                        dy = 0;
+                        dist = 1;
+                    }
+                    // Each of the pair moves half of the way
+                    float overlap = (minDist - dist) * 0.5f * strength;
+                    px += dx / dist * overlap;
+                    py += dy / dist * overlap;
+                    if (++neighbors >= MAX_NEIGHBORS) break search;
+                }
+            }
+        }
+
+        float length2 = px*px + py*py;
+        float limit = r * maxPush;
+        if (length2 > limit*limit) {
+            float scale = limit / (float)Math.sqrt(length2);
+            px *= scale;
+            py *= scale;
+        }
+        pushX[i] = px;
+        pushY[i] = py;
+    }
+}
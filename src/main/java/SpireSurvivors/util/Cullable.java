@@ -0,0 +1,14 @@
+package SpireSurvivors.util;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Effects implementing this are skipped while they're off screen.
+ */
+public interface Cullable {
+    /**
+     * @param view The part of the world that gets drawn, in world coordinates.
+     * @return Whether any of the effect could be inside {@code view}.
+     */
+    boolean inView(Rectangle view);
+}
@@ -0,0 +1,12 @@
+package SpireSurvivors.util;
+
+/**
+ * Effects implementing this are drawn in between monsters and the player according to their depth,
+ * instead of on top of everything.
+ */
+public interface DepthSorted {
+    /**
+     * @return The y coordinate the effect would stand on. Lower means closer to the camera.
+     */
+    float depth();
+}
@@ -0,0 +1,230 @@
+package SpireSurvivors.util;
+
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.Arrays;
+
+/**
+ * Tells monsters which way to walk to reach the player without running into walls.<br>
+ * The field is a breadth first distance map over the map's tiles, spreading out from the player's tile up to
+ * {@link FlowField#radius radius} tiles away. Every tile then points down the slope of that map,
+ * so a monster only has to look up the tile it's standing on.
+ * The field is only rebuilt when the player enters a different tile, and the rebuild is spread over ticks
+ * by {@link FlowField#budget budget}, with the old field staying in use until the new one is done.
+ * <p>
+ * Walls come from the map's collision layer: a tile layer named {@code Collision}, or one with the property
+ * {@code collision} set. Every tile on it blocks movement. Maps without one are open everywhere.
+ */
+public class FlowField {
+    public static final String COLLISION_LAYER = "Collision";
+    private static final int UNREACHED = -1;
+    private static final int[] NEIGHBOR_X = {1, -1, 0, 0};
+    private static final int[] NEIGHBOR_Y = {0, 0, 1, -1};
+
+    /**
+     * The size of a tile in world units
+     */
+    public final float tileSize;
+    public final int width, height;
+    /**
+     * How many tiles away from the player the field reaches
+     */
+    public int radius = 32;
+    /**
+     * How many tiles a single {@link FlowField#update(float, float) update()} may visit while rebuilding
+     */
+    public int budget = 4096;
+
+    private final boolean[] blocked;
+    /**
+     * The field in use and the one being built, as distances in tiles. Swapped once the new one is done.
+     */
+    private int[] distances, building;
+    /**
+     * The way to walk from each tile of the field in use, already normalized
+     */
+    private final float[] directionX, directionY;
+    /**
+     * Tiles that were reached by the field in use, so clearing it doesn't have to touch the whole map
+     */
+    private final int[] reached;
+    private int reachedCount = 0;
+    private final int[] queue;
+    private int queueStart = 0, queueEnd = 0;
+
+    private int playerTile = UNREACHED;
+    private int buildingTile = UNREACHED;
+    private boolean ready = false;
+
+    public FlowField(TiledMap map, float unitScale) {
+        TiledMapTileLayer base = null;
+        TiledMapTileLayer collision = null;
+        for (MapLayer layer : map.getLayers()) {
+            if (!(layer instanceof TiledMapTileLayer)) continue;
+            if (base == null) base = (TiledMapTileLayer) layer;
+            if (COLLISION_LAYER.equalsIgnoreCase(layer.getName()) || layer.getProperties().get("collision", false, Boolean.class)) {
+                collision = (TiledMapTileLayer) layer;
+            }
+        }
+        if (base == null) throw new IllegalArgumentException("Map has no tile layers");
+
+        width = base.getWidth();
+        height = base.getHeight();
+        tileSize = base.getTileWidth() * unitScale;
+        blocked = new boolean[width * height];
+        if (collision != null) {
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    blocked[index(x, y)] = collision.getCell(x, y) != null;
+                }
+            }
+        }
+
+        distances = new int[width * height];
+        building = new int[width * height];
+        Arrays.fill(distances, UNREACHED);
+        Arrays.fill(building, UNREACHED);
+        directionX = new float[width * height];
+        directionY = new float[width * height];
+        reached = new int[width * height];
+        queue = new int[width * height];
+    }
+
+    /**
+     * @return Whether the tile at ({@code x}, {@code y}) can't be walked through. Everything outside the map can be.
+     */
+    public boolean blocked(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && blocked[index(x, y)];
+    }
+
+    /**
+     * Starts a rebuild if the player entered a different tile, and continues any rebuild that isn't done yet.
+     * Should be called once per tick, after the player moved.
+     * @param playerX Where the player is in world coordinates.
+     * @param playerY Where the player is in world coordinates.
+     */
+    public void update(float playerX, float playerY) {
+        int x = SlotGrid.cell(playerX, tileSize);
+        int y = SlotGrid.cell(playerY, tileSize);
+        int tile = x >= 0 && y >= 0 && x < width && y < height ? index(x, y) : UNREACHED;
+
+        if (tile != buildingTile) {
+            abandonBuild();
+            buildingTile = tile;
+            // Walking back into the tile the field in use was built for doesn't need a rebuild
+            if (tile != UNREACHED && tile != playerTile && !blocked[tile]) {
+                building[tile] = 0;
+                queue[queueEnd++] = tile;
+            }
+        }
+        if (tile == playerTile && queueStart == queueEnd) return;
+
+        int visited = 0;
+        while (queueStart < queueEnd && visited++ < budget) {
+            int current = queue[queueStart++];
+            int distance = building[current];
+            if (distance >= radius) continue;
+            int cx = current % width, cy = current / width;
+            for (int i = 0; i < NEIGHBOR_X.length; i++) {
+                int nx = cx + NEIGHBOR_X[i], ny = cy + NEIGHBOR_Y[i];
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height) continue;
+                int next = index(nx, ny);
+                if (blocked[next] || building[next] != UNREACHED) continue;
+                building[next] = distance + 1;
+                queue[queueEnd++] = next;
+            }
+        }
+        if (queueStart == queueEnd) finishBuild();
+    }
+
+    /**
+     * Points {@code dir} the way a monster at ({@code x}, {@code y}) should walk to reach the player.<br>
+     * Close to the player, or anywhere the field doesn't reach, {@code dir} is left alone,
+     * so it should already point straight at the player.
+     * @param dir The direction to walk in. Its length isn't kept.
+     * @return Whether {@code dir} was changed.
+     */
+    public boolean steer(float x, float y, Vector2 dir) {
+        if (!ready) return false;
+        int cx = SlotGrid.cell(x, tileSize);
+        int cy = SlotGrid.cell(y, tileSize);
+        if (cx < 0 || cy < 0 || cx >= width || cy >= height) return false;
+        int tile = index(cx, cy);
+        // Neighbouring tiles can't have a wall between them and the player, so walk straight there
+        if (distances[tile] <= 1 || (directionX[tile] == 0 && directionY[tile] == 0)) return false;
+        dir.set(directionX[tile], directionY[tile]);
+        return true;
+    }
+
+    /**
+     * Forgets the field, so it's rebuilt from scratch on the next {@link FlowField#update(float, float) update()}.
+     */
+    public void reset() {
+        abandonBuild();
+        ready = false;
+        playerTile = buildingTile = UNREACHED;
+    }
+
+    /**
+     * Drops a rebuild that isn't done yet. Everything it reached went through the queue, so only those tiles need clearing.
+     */
+    private void abandonBuild() {
+        for (int i = 0; i < queueEnd; i++) {
+            building[queue[i]] = UNREACHED;
+        }
+        queueStart = queueEnd = 0;
+    }
+
+    /**
+     * Swaps the finished field in and works out the direction of every tile it reached.
+     */
+    private void finishBuild() {
+        for (int i = 0; i < reachedCount; i++) {
+            distances[reached[i]] = UNREACHED;
+        }
+        int[] swap = distances;
+        distances = building;
+        building = swap;
+        playerTile = buildingTile;
+
+        // Every tile the new field reached went through the queue, in order
+        reachedCount = queueEnd;
+        System.arraycopy(queue, 0, reached, 0, queueEnd);
+        for (int i = 0; i < reachedCount; i++) {
+            int tile = reached[i];
+            int cx = tile % width, cy = tile / width;
+            int distance = distances[tile];
+            // Down the slope, treating walls and unreached tiles as level with this one
+            float dx = distanceAt(cx - 1, cy, distance) - distanceAt(cx + 1, cy, distance);
+            float dy = distanceAt(cx, cy - 1, distance) - distanceAt(cx, cy + 1, distance);
+            if (dx == 0 && dy == 0) {
+                // Stuck between equally far tiles, so take any closer neighbour
+                for (int n = 0; n < NEIGHBOR_X.length; n++) {
+                    if (distanceAt(cx + NEIGHBOR_X[n], cy + NEIGHBOR_Y[n], distance) < distance) {
+                        dx = NEIGHBOR_X[n];
+                        dy = NEIGHBOR_Y[n];
+                        break;
+                    }
+                }
+            }
+            float length = (float)Math.sqrt(dx*dx + dy*dy);
+            directionX[tile] = length > 0 ? dx / length : 0;
+            directionY[tile] = length > 0 ? dy / length : 0;
+        }
+        queueStart = queueEnd = 0;
+        ready = playerTile != UNREACHED;
+    }
+
+    private int distanceAt(int x, int y, int fallback) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return fallback;
+        int distance = distances[index(x, y)];
+        return distance == UNREACHED ? fallback : distance;
+    }
+
+    private int index(int x, int y) {
+        return y * width + x;
+    }
+}
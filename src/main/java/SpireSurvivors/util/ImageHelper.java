@@ -34,6 +34,16 @@ public class ImageHelper {
         return texture;
     }
 
+    /**
+     * @return The part of {@code fbo} that was drawn at ({@code x}, {@code y}) with the given size, the right way up.
+     */
+    public static TextureRegion getBufferRegion(FrameBuffer fbo, int x, int y, int width, int height) {
+        // Buffers are stored bottom row first, so buffer coordinates are texture coordinates upside down
+        TextureRegion region = new TextureRegion(fbo.getColorBufferTexture(), x, y, width, height);
+        region.flip(false, true);
+        return region;
+    }
+
     public static TextureAtlas.AtlasRegion asAtlasRegion(Texture tex) {
         return new TextureAtlas.AtlasRegion(tex, 0, 0, tex.getWidth(), tex.getHeight());
     }
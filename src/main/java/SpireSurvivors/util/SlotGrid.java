@@ -0,0 +1,150 @@
+package SpireSurvivors.util;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+
+import java.util.Arrays;
+
+/**
+ * Buckets the slots of a fixed size pool by the world cell they're in.<br>
+ * Each cell is an intrusive doubly linked list threaded through the slot indices,
+ * so adding, removing and moving a slot never allocates.
+ */
+public final class SlotGrid {
+    public static final int NONE = -1;
+
+    /**
+     * The width and height of a single cell.
+     */
+    public final float cellSize;
+
+    /**
+     * Maps a packed cell key to the first slot in that cell
+     */
+    private final IntIntMap heads = new IntIntMap();
+    private final int[] cells;
+    private final int[] next;
+    private final int[] prev;
+
+    public SlotGrid(int capacity, float cellSize) {
+        this.cellSize = cellSize;
+        cells = new int[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        Arrays.fill(next, NONE);
+        Arrays.fill(prev, NONE);
+    }
+
+    /**
+     * @return The coordinate of the cell of size {@code cellSize} containing {@code v}.
+     */
+    public static int cell(float v, float cellSize) {
+        return (int)Math.floor(v / cellSize);
+    }
+
+    /**
+     * @return The coordinate of the cell containing {@code v}.
+     */
+    public int cell(float v) {
+        return cell(v, cellSize);
+    }
+
+    /**
+     * Packs the cell coordinates ({@code cx}, {@code cy}) into a single key.
+     */
+    public static int key(int cx, int cy) {
+        return (cx << 16) | (cy & 0xFFFF);
+    }
+
+    /**
+     * @return The packed key of the cell of size {@code cellSize} containing ({@code x}, {@code y}).
+     */
+    public static int keyAt(float x, float y, float cellSize) {
+        return key(cell(x, cellSize), cell(y, cellSize));
+    }
+
+    /**
+     * @return The packed key of the cell containing ({@code x}, {@code y}).
+     */
+    public int keyAt(float x, float y) {
+        return keyAt(x, y, cellSize);
+    }
+
+    /**
+     * Adds {@code slot} to the cell containing ({@code x}, {@code y}).
+     */
+    public void add(int slot, float x, float y) {
+        link(slot, keyAt(x, y));
+    }
+
+    /**
+     * Removes {@code slot} from whichever cell it's in.
+     */
+    public void remove(int slot) {
+        int key = cells[slot];
+        int p = prev[slot];
+        int n = next[slot];
+        if (p != NONE) {
+            next[p] = n;
+        } else if (n != NONE) {
+            heads.put(key, n);
+        } else {
+            heads.remove(key, NONE);
+        }
+        if (n != NONE) prev[n] = p;
+        next[slot] = prev[slot] = NONE;
+    }
+
+    /**
+     * Moves {@code slot} to the cell containing ({@code x}, {@code y}), if it isn't in it already.
+     */
+    public void move(int slot, float x, float y) {
+        int key = keyAt(x, y);
+        if (key != cells[slot]) {
+            remove(slot);
+            link(slot, key);
+        }
+    }
+
+    /**
+     * Removes all slots from the grid.
+     */
+    public void clear() {
+        heads.clear();
+        Arrays.fill(next, NONE);
+        Arrays.fill(prev, NONE);
+    }
+
+    /**
+     * @return The first slot in the cell with the given packed key, or {@code -1} if the cell is empty.
+     */
+    public int head(int key) {
+        return heads.get(key, NONE);
+    }
+
+    /**
+     * @return The slot after {@code slot} in its cell, or {@code -1} if it's the last one.
+     */
+    public int next(int slot) {
+        return next[slot];
+    }
+
+    /**
+     * Adds the packed keys of all non-empty cells to {@code out}.
+     */
+    public void collectCells(IntArray out) {
+        IntIntMap.Keys keys = heads.keys();
+        while (keys.hasNext) {
+            out.add(keys.next());
+        }
+    }
+
+    private void link(int slot, int key) {
+        int head = heads.get(key, NONE);
+        cells[slot] = key;
+        prev[slot] = NONE;
+        next[slot] = head;
+        if (head != NONE) prev[head] = slot;
+        heads.put(key, slot);
+    }
+}
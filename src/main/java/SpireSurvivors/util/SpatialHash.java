@@ -0,0 +1,145 @@
+package SpireSurvivors.util;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.LongMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A uniform grid that buckets entries by the world cell their center lies in.<br>
+ * Every entry lives in exactly one cell, so queries never return duplicates.
+ * Queries are widened by the largest extents inserted since the last {@link SpatialHash#clear() clear()},
+ * so anything whose bounds could overlap the query area is returned.
+ * @param <T> The type of the stored entries.
+ */
+public class SpatialHash<T> {
+    /**
+     * The width and height of a single cell.
+     */
+    public final float cellSize;
+    private final LongMap<ArrayList<T>> cells = new LongMap<>();
+    private final ArrayList<ArrayList<T>> usedBuckets = new ArrayList<>();
+    private final ArrayList<ArrayList<T>> spareBuckets = new ArrayList<>();
+    private float maxHalfWidth, maxHalfHeight;
+    private int size;
+
+    public SpatialHash(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Packs the cell coordinates ({@code cx}, {@code cy}) into a single key.
+     */
+    public static long key(int cx, int cy) {
+        return ((long)cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return The coordinate of the cell containing {@code v}.
+     */
+    public int cell(float v) {
+        return (int)Math.floor(v / cellSize);
+    }
+
+    /**
+     * Removes all entries. Buckets are kept around to be reused.
+     */
+    public void clear() {
+        for (ArrayList<T> bucket : usedBuckets) {
+            bucket.clear();
+            spareBuckets.add(bucket);
+        }
+        usedBuckets.clear();
+        cells.clear();
+        maxHalfWidth = maxHalfHeight = 0;
+        size = 0;
+    }
+
+    /**
+     * @return The amount of entries in the grid.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Inserts {@code item} centered at ({@code x}, {@code y}).
+     * @param item The entry to insert.
+     * @param x The x coordinate of the center of the entry.
+     * @param y The y coordinate of the center of the entry.
+     * @param halfWidth Half the width of the entry's bounds.
+     * @param halfHeight Half the height of the entry's bounds.
+     */
+    public void insert(T item, float x, float y, float halfWidth, float halfHeight) {
+        long key = key(cell(x), cell(y));
+        ArrayList<T> bucket = cells.get(key);
+        if (bucket == null) {
+            bucket = spareBuckets.isEmpty() ? new ArrayList<>() : spareBuckets.remove(spareBuckets.size() - 1);
+            cells.put(key, bucket);
+            usedBuckets.add(bucket);
+        }
+        bucket.add(item);
+        if (halfWidth > maxHalfWidth) maxHalfWidth = halfWidth;
+        if (halfHeight > maxHalfHeight) maxHalfHeight = halfHeight;
+        size++;
+    }
+
+    /**
+     * Inserts {@code item} with the given bounds.
+     * @param item The entry to insert.
+     * @param bounds The bounds of the entry.
+     */
+    public void insert(T item, Rectangle bounds) {
+        insert(item, bounds.x + bounds.width/2f, bounds.y + bounds.height/2f, bounds.width/2f, bounds.height/2f);
+    }
+
+    /**
+     * Adds every entry whose bounds may overlap the given area to {@code out}.
+     * @param minX The left edge of the area.
+     * @param minY The bottom edge of the area.
+     * @param maxX The right edge of the area.
+     * @param maxY The top edge of the area.
+     * @param out The collection to add the entries to. It is not cleared beforehand.
+     * @return {@code out}.
+     */
+    public <C extends Collection<? super T>> C query(float minX, float minY, float maxX, float maxY, C out) {
+        if (size == 0) return out;
+        int x0 = cell(minX - maxHalfWidth);
+        int x1 = cell(maxX + maxHalfWidth);
+        int y0 = cell(minY - maxHalfHeight);
+        int y1 = cell(maxY + maxHalfHeight);
+
+        // Very large queries are cheaper to answer by walking the occupied cells
+        if ((long)(x1 - x0 + 1) * (y1 - y0 + 1) > usedBuckets.size()) {
+            for (LongMap.Entry<ArrayList<T>> e : cells.entries()) {
+                int cx = (int)(e.key >> 32);
+                int cy = (int)e.key;
+                if (cx >= x0 && cx <= x1 && cy >= y0 && cy <= y1) {
+                    out.addAll(e.value);
+                }
+            }
+            return out;
+        }
+
+        for (int cx = x0; cx <= x1; cx++) {
+            for (int cy = y0; cy <= y1; cy++) {
+                ArrayList<T> bucket = cells.get(key(cx, cy));
+                if (bucket != null) {
+                    out.addAll(bucket);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Adds every entry whose bounds may overlap {@code bounds} to {@code out}.
+     * @param bounds The area to query.
+     * @param out The collection to add the entries to. It is not cleared beforehand.
+     * @return {@code out}.
+     */
+    public <C extends Collection<? super T>> C query(Rectangle bounds, C out) {
+        return query(bounds.x, bounds.y, bounds.x + bounds.width, bounds.y + bounds.height, out);
+    }
+}
@@ -1,13 +1,12 @@
 package SpireSurvivors.util;
 
+import SpireSurvivors.SpireSurvivorsMod;
 import SpireSurvivors.dungeon.SurvivorDungeon;
-import SpireSurvivors.monsters.BasicMonster;
-import com.badlogic.gdx.Gdx;
+import SpireSurvivors.horde.HordeArchetype;
+import SpireSurvivors.monsters.MonsterArchetype;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
 import com.megacrit.cardcrawl.core.Settings;
 import com.megacrit.cardcrawl.dungeons.AbstractDungeon;
-import com.megacrit.cardcrawl.monsters.exordium.LouseNormal;
 
 public class SpawnController {
     public static final float MX = (Settings.WIDTH * -0.75F + Settings.WIDTH/2f)/Settings.xScale;
@@ -15,8 +14,17 @@ public class SpawnController {
     public float waveTimer;
     public int waveCounter;
 
+    public SpawnController() {
+        // Load what the first waves are made of up front, instead of hitching when they spawn
+        if (SpireSurvivorsMod.hordeSpawns) {
+            HordeArchetype.LOUSE.prepare();
+        } else {
+            MonsterArchetype.LOUSE.prepare();
+        }
+    }
+
     public void update() {
-        waveTimer -= Gdx.graphics.getDeltaTime();
+        waveTimer -= SurvivorDungeon.tickDuration;
         if (waveTimer <= 0f) {
             waveTimer = 4f;
             waveCounter++;
@@ -25,15 +33,37 @@ public class SpawnController {
     }
 
     public void spawnMonsters() {
-        pepperSpawn(waveCounter + 2);
+        if (SpireSurvivorsMod.hordeSpawns) {
+            hordeSpawn(HordeArchetype.LOUSE, (waveCounter + 2) * 10);
+        } else {
+            pepperSpawn(waveCounter + 2);
+        }
     }
 
     public void pepperSpawn(int amount) {
+        SurvivorDungeon.monsters.ensureCapacity(SurvivorDungeon.monsters.size() + amount);
+        for (int i = 0 ; i < amount ; i++) {
+            float angle = MathUtils.random(360);
+            // Monster offsets are relative to the screen, so shift them to wherever the camera is in the world
+            float x = MX + MathUtils.cosDeg(angle) * 1920 + SurvivorDungeon.worldX / Settings.xScale;
+            float y = MY + MathUtils.sinDeg(angle) * 1920 + SurvivorDungeon.worldY / Settings.yScale;
+            SurvivorDungeon.monsters.add(MonsterArchetype.LOUSE.spawn(x, y));
+        }
+    }
+
+    /**
+     * Spawns {@code amount} horde monsters of {@code type} at random points on a ring around the player.
+     * Stops early if the horde is full.
+     */
+    public void hordeSpawn(HordeArchetype type, int amount) {
+        float cx = SurvivorDungeon.player.basePlayer.hb.cX;
+        float cy = SurvivorDungeon.player.basePlayer.hb.cY;
+        float radius = 1920 * Settings.scale;
         for (int i = 0 ; i < amount ; i++) {
-            Vector2 spawn = new Vector2(0, 1);
-            spawn.rotate(MathUtils.random(360));
-            spawn.scl(1920);
-            SurvivorDungeon.monsters.add(new BasicMonster(new LouseNormal(MX+spawn.x, MY+spawn.y)));
+            float angle = MathUtils.random(360f);
+            if (SurvivorDungeon.horde.spawn(type, cx + MathUtils.cosDeg(angle) * radius, cy + MathUtils.sinDeg(angle) * radius) == -1) {
+                return;
+            }
         }
     }
 
@@ -1,6 +1,5 @@
 package SpireSurvivors.weapons.abstracts;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Vector2;
 import com.megacrit.cardcrawl.cards.AbstractCard;
 import com.megacrit.cardcrawl.helpers.input.InputHelper;
@@ -16,10 +15,10 @@ public abstract class AbstractBurstProjectileSurvivorWeapon extends AbstractSurv
     }
 
     @Override
-    public void update() {
-        super.update();
+    public void update(float delta) {
+        super.update(delta);
         if (burstsLeft > 0) {
-            burstTimer -= Gdx.graphics.getDeltaTime();
+            burstTimer -= delta;
             if (burstTimer <= 0f) {
                 burstTimer = burstDelay;
                 burstsLeft--;
@@ -4,7 +4,6 @@ import SpireSurvivors.SpireSurvivorsMod;
 import SpireSurvivors.cards.abstracts.AbstractWeaponCard;
 import SpireSurvivors.dungeon.SurvivorDungeon;
 import SpireSurvivors.entity.AbstractSurvivorPlayer;
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Vector2;
 import com.megacrit.cardcrawl.cards.AbstractCard;
 import com.megacrit.cardcrawl.core.CardCrawlGame;
@@ -38,7 +37,14 @@ public abstract class AbstractSurvivorWeapon {
     }
 
     public void update() {
-        timer -= Gdx.graphics.getDeltaTime();
+        update(SurvivorDungeon.tickDuration);
+    }
+
+    /**
+     * Advances the weapon by {@code delta} seconds instead of one tick, for entities that skip ticks.
+     */
+    public void update(float delta) {
+        timer -= delta;
         if (timer <= 0f) {
             timer = attackDelay/SurvivorDungeon.player.attackspeedModifier;
             Vector2 dir = new Vector2(InputHelper.mX - CX, InputHelper.mY - CY);
@@ -2,7 +2,6 @@ package SpireSurvivors.weapons.monster;
 
 import SpireSurvivors.weapons.LightningSparkWeapon;
 import SpireSurvivors.weapons.abstracts.AbstractSurvivorWeapon;
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Vector2;
 import com.megacrit.cardcrawl.cards.AbstractCard;
 import com.megacrit.cardcrawl.cards.curses.Necronomicurse;
@@ -26,9 +25,9 @@ public class MonsterCollisionWeapon extends AbstractSurvivorWeapon {
     }
 
     @Override
-    public void update() {
+    public void update(float delta) {
         if (timer > 0f) {
-            timer -= Gdx.graphics.getDeltaTime();
+            timer -= delta;
         }
     }
 
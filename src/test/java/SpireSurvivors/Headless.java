@@ -0,0 +1,70 @@
+package SpireSurvivors;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.backends.lwjgl.LwjglFiles;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.megacrit.cardcrawl.core.CardCrawlGame;
+import com.megacrit.cardcrawl.core.Settings;
+import com.megacrit.cardcrawl.localization.LocalizedStrings;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+
+/**
+ * Just enough of the game for tests and benchmarks to load mod classes without a window.<br>
+ * Files are read like the game reads them, from the working directory or the classpath, so the game jar and
+ * the mod's resources have to be on it. GL calls all do nothing, so textures load but can't be drawn.
+ */
+public final class Headless {
+    private static boolean booted = false;
+    private static boolean stringsLoaded = false;
+
+    private Headless() {}
+
+    /**
+     * Sets up files, a GL context that ignores everything and the screen size of a 1080p game.
+     * Has to be called before anything touches a class that loads textures.
+     */
+    public static synchronized void boot() {
+        if (booted) return;
+        booted = true;
+        GdxNativesLoader.load();
+        Gdx.app = stub(Application.class);
+        Gdx.graphics = stub(Graphics.class);
+        Gdx.files = new LwjglFiles();
+        Gdx.gl = Gdx.gl20 = stub(GL20.class);
+
+        Settings.scale = 1f;
+        Settings.WIDTH = 1920;
+        Settings.HEIGHT = 1080;
+    }
+
+    /**
+     * Loads the English strings, which creatures need before their classes can be loaded.
+     */
+    public static synchronized void loadStrings() {
+        boot();
+        if (stringsLoaded) return;
+        stringsLoaded = true;
+        Settings.language = Settings.GameLanguage.ENG;
+        CardCrawlGame.languagePack = new LocalizedStrings();
+    }
+
+    /**
+     * @return An implementation of {@code type} that returns zero, {@code false} or {@code null} from everything.
+     */
+    private static <T> T stub(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals": return proxy == args[0];
+                case "hashCode": return System.identityHashCode(proxy);
+                case "toString": return "Headless " + type.getSimpleName();
+            }
+            Class<?> result = method.getReturnType();
+            return result.isPrimitive() && result != void.class ? Array.get(Array.newInstance(result, 1), 0) : null;
+        }));
+    }
+}
@@ -0,0 +1,129 @@
+package SpireSurvivors.entity;
+
+import SpireSurvivors.Headless;
+import basemod.ReflectionHacks;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.esotericsoftware.spine.Skeleton;
+import com.megacrit.cardcrawl.core.AbstractCreature;
+import com.megacrit.cardcrawl.monsters.AbstractMonster;
+import com.megacrit.cardcrawl.monsters.exordium.LouseNormal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import sun.misc.Unsafe;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a frame of {@code monsters} monsters reading the game monster's private rendering fields through
+ * {@link ReflectionHacks} every time, like {@link AbstractSurvivorMonster} used to, with reading fields looked up once.<br>
+ * Also compares calling a private method through {@code ReflectionHacks.privateMethod()} with a cached {@link MethodHandle},
+ * like {@link AbstractSurvivorPlayer} does for {@code updateHealthBar()} every tick. The real {@code updateHealthBar()} needs
+ * a fully built player, so a private method of the same shape stands in for it.<br>
+ * Monsters are allocated without running their constructors, since only their fields are read.
+ * Needs the game jar and the mod's resources on the classpath, see {@link Headless}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MonsterAccessBenchmark {
+    @Param({"500"})
+    public int monsters;
+
+    private AbstractMonster[] models;
+    private RenderFields[] cached;
+    private final Creature creature = new Creature();
+    private MethodHandle updateHealthBar;
+
+    /**
+     * The fields {@link AbstractSurvivorMonster} keeps for its game monster
+     */
+    private static final class RenderFields {
+        Texture img;
+        Skeleton skeleton;
+        TextureAtlas atlas;
+    }
+
+    /**
+     * Stands in for {@link AbstractCreature}
+     */
+    private static final class Creature {
+        private int updates = 0;
+
+        private void updateHealthBar() {
+            updates++;
+        }
+    }
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        Headless.loadStrings();
+        Unsafe unsafe = ReflectionHacks.getPrivateStatic(Unsafe.class, "theUnsafe");
+        models = new AbstractMonster[monsters];
+        cached = new RenderFields[monsters];
+        for (int i = 0; i < monsters; i++) {
+            models[i] = (AbstractMonster) unsafe.allocateInstance(LouseNormal.class);
+            cached[i] = new RenderFields();
+            cached[i].img = ReflectionHacks.getPrivate(models[i], AbstractMonster.class, "img");
+            cached[i].skeleton = ReflectionHacks.getPrivate(models[i], AbstractCreature.class, "skeleton");
+            cached[i].atlas = ReflectionHacks.getPrivate(models[i], AbstractCreature.class, "atlas");
+        }
+
+        Method method = Creature.class.getDeclaredMethod("updateHealthBar");
+        method.setAccessible(true);
+        updateHealthBar = MethodHandles.lookup().unreflect(method);
+    }
+
+    @Benchmark
+    public void renderFieldsReflected(Blackhole bh) {
+        for (AbstractMonster m : models) {
+            bh.consume(ReflectionHacks.<TextureAtlas>getPrivate(m, AbstractCreature.class, "atlas"));
+            bh.consume(ReflectionHacks.<Texture>getPrivate(m, AbstractMonster.class, "img"));
+            bh.consume(ReflectionHacks.<Skeleton>getPrivate(m, AbstractCreature.class, "skeleton"));
+        }
+    }
+
+    @Benchmark
+    public void renderFieldsCached(Blackhole bh) {
+        for (RenderFields m : cached) {
+            bh.consume(m.atlas);
+            bh.consume(m.img);
+            bh.consume(m.skeleton);
+        }
+    }
+
+    @Benchmark
+    public int healthBarReflected() {
+        ReflectionHacks.privateMethod(Creature.class, "updateHealthBar").invoke(creature);
+        return creature.updates;
+    }
+
+    @Benchmark
+    public int healthBarMethodHandle() throws Throwable {
+        updateHealthBar.invokeExact(creature);
+        return creature.updates;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MonsterAccessBenchmark.class.getSimpleName()).build()).run();
+    }
+}
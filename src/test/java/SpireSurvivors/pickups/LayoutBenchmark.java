@@ -0,0 +1,72 @@
+package SpireSurvivors.pickups;
+
+import SpireSurvivors.Headless;
+import SpireSurvivors.SpireSurvivorsMod;
+import SpireSurvivors.dungeon.SurvivorDungeon;
+import SpireSurvivors.pickups.AbstractPickup.PickupType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates a tick of 32k pickups in either {@link PickupPool.Layout Layout}.<br>
+ * The player stands far away from all of them, so the pass only measures distances, bobbing and grid upkeep,
+ * and every tick does the same work. Needs the game jar and the mod's resources on the classpath, see {@link Headless}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LayoutBenchmark {
+    private static final int PICKUPS = 32 * PickupPool.POOL_SIZE;
+    private static final float FIELD_SIZE = 8000f;
+
+    @Param({"ARRAY_OF_STRUCTS", "STRUCT_OF_ARRAYS"})
+    public PickupPool.Layout layout;
+
+    @Setup
+    public void fill() {
+        Headless.boot();
+        SpireSurvivorsMod.maxPickups = Integer.MAX_VALUE;
+        PickupPool.clearPools();
+        PickupPool.defaultLayout = layout;
+        Random rng = new Random(32);
+        for (int i = 0; i < PICKUPS; i++) {
+            PickupPool.spawn(rng.nextFloat() * FIELD_SIZE, rng.nextFloat() * FIELD_SIZE, PickupType.XP, 0, false);
+        }
+    }
+
+    @TearDown
+    public void clear() {
+        PickupPool.clearPools();
+        PickupPool.defaultLayout = PickupPool.Layout.ARRAY_OF_STRUCTS;
+    }
+
+    @Benchmark
+    public void simulate() {
+        for (int i = 0; i < SurvivorDungeon.pickupPools.size(); i++) {
+            SurvivorDungeon.pickupPools.get(i).simulate(-FIELD_SIZE, -FIELD_SIZE, 150f);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LayoutBenchmark.class.getSimpleName()).build()).run();
+    }
+}
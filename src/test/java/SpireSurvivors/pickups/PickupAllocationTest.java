@@ -0,0 +1,159 @@
+package SpireSurvivors.pickups;
+
+import SpireSurvivors.Headless;
+import SpireSurvivors.SpireSurvivorsMod;
+import SpireSurvivors.pickups.AbstractPickup.PickupType;
+import SpireSurvivors.pickups.PickupPool.Layout;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.LongArray;
+import com.sun.management.ThreadMXBean;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the primitive iteration methods, the compressor's regular sweep and a pool's update don't allocate once they're warmed up,
+ * by counting the bytes this thread allocated around a few thousand calls.
+ * Needs the game jar and the mod's resources on the classpath, see {@link Headless}.
+ */
+public class PickupAllocationTest {
+    private static final int PICKUPS = 4 * PickupPool.POOL_SIZE;
+    private static final float FIELD_SIZE = 4000f;
+    private static final int WARMUP = 2_000;
+    private static final int ROUNDS = 5_000;
+    /**
+     * Id of a type that can't be collected, so pools can be updated around a player without anything paying out
+     */
+    private static final int ANCHORED_ID = 9;
+
+    private static final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final LongArray out = new LongArray(PICKUPS);
+    private static final LongPredicate filter = address -> PickupStruct.compression(address) == 0;
+    private static long visited = 0;
+    private static final LongConsumer counter = address -> visited++;
+    private static long pulling = 0;
+    private static final LongConsumer pullCounter = address -> {
+        if (PickupStruct.beingPulled(address)) pulling++;
+    };
+    private static int maxPickups;
+    private static PickupType anchored;
+
+    @BeforeClass
+    public static void fill() {
+        Headless.boot();
+        maxPickups = SpireSurvivorsMod.maxPickups;
+        SpireSurvivorsMod.maxPickups = Integer.MAX_VALUE;
+        anchored = PickupType.deserialize(ANCHORED_ID);
+        if (anchored == null) {
+            anchored = PickupType.register(new PickupType(ANCHORED_ID, new TextureRegion(), 10f, 4f, false, PickupStruct.FLAG_PERSISTENT));
+        }
+        PickupPool.clearPools();
+        Random rng = new Random(6);
+        for (int i = 0; i < PICKUPS; i++) {
+            PickupPool.spawn(rng.nextFloat() * FIELD_SIZE, rng.nextFloat() * FIELD_SIZE, PickupType.XP, rng.nextInt(2), true);
+        }
+        // Let the compressor merge everything it can, so the measured sweeps only look
+        for (int i = 0; i < WARMUP; i++) {
+            PickupPool.compressor.update();
+        }
+    }
+
+    @AfterClass
+    public static void clear() {
+        PickupPool.clearPools();
+        SpireSurvivorsMod.maxPickups = maxPickups;
+    }
+
+    @Test
+    public void visitNearbyDoesNotAllocate() {
+        assertNoAllocations(() -> PickupPool.visitNearby(FIELD_SIZE / 2f, FIELD_SIZE / 2f, 300f, counter));
+        assertTrue(visited > 0);
+    }
+
+    @Test
+    public void collectNearbyDoesNotAllocate() {
+        assertNoAllocations(() -> {
+            out.clear();
+            PickupPool.collectNearby(FIELD_SIZE / 2f, FIELD_SIZE / 2f, 300f, filter, out);
+        });
+        assertTrue(out.size > 0);
+    }
+
+    @Test
+    public void visitDoesNotAllocate() {
+        assertNoAllocations(() -> PickupPool.visit(counter));
+    }
+
+    @Test
+    public void compressorSweepDoesNotAllocate() {
+        int live = PickupPool.livePickups();
+        assertNoAllocations(PickupPool.compressor::update);
+        assertEquals("nothing should be left to merge", live, PickupPool.livePickups());
+    }
+
+    @Test
+    public void updateLocalDoesNotAllocate() {
+        // Far away from the field, so nothing is pulled or touched
+        for (Layout layout : Layout.values()) {
+            PickupPool pool = standalonePool(layout);
+            assertNoAllocations(() -> {
+                pool.simulate(-FIELD_SIZE, -FIELD_SIZE, 150f);
+                pool.commit();
+            });
+            pool.free();
+        }
+    }
+
+    @Test
+    public void updateLocalWhilePullingDoesNotAllocate() {
+        // In the middle of the field and pulling all of it, so pickups get pulled in and touch the player without being collected
+        for (Layout layout : Layout.values()) {
+            PickupPool pool = standalonePool(layout);
+            assertNoAllocations(() -> {
+                pool.simulate(FIELD_SIZE / 2f, FIELD_SIZE / 2f, FIELD_SIZE);
+                pool.commit();
+            });
+            pulling = 0;
+            pool.visitLocal(pullCounter);
+            assertEquals(layout + " pickups being pulled", PickupPool.POOL_SIZE, pulling);
+            pool.free();
+        }
+    }
+
+    /**
+     * @return A full pool of {@code layout} that isn't added to the others, holding pickups that can't be collected.
+     */
+    private static PickupPool standalonePool(Layout layout) {
+        PickupPool pool = new PickupPool(layout);
+        Random rng = new Random(6);
+        for (int i = 0; i < PickupPool.POOL_SIZE; i++) {
+            pool.spawnLocal(rng.nextFloat() * FIELD_SIZE, rng.nextFloat() * FIELD_SIZE, anchored, 0, false);
+        }
+        return pool;
+    }
+
+    private static void assertNoAllocations(Runnable action) {
+        for (int i = 0; i < WARMUP; i++) {
+            action.run();
+        }
+        // Reading the counter allocates a little itself, so measure that first
+        long id = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(id);
+        long overhead = threads.getThreadAllocatedBytes(id) - start;
+
+        start = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < ROUNDS; i++) {
+            action.run();
+        }
+        long allocated = threads.getThreadAllocatedBytes(id) - start - overhead;
+        assertEquals("bytes allocated over " + ROUNDS + " calls", 0, allocated);
+    }
+}
@@ -0,0 +1,86 @@
+package SpireSurvivors.pickups;
+
+import SpireSurvivors.Headless;
+import SpireSurvivors.SpireSurvivorsMod;
+import SpireSurvivors.pickups.AbstractPickup.PickupType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drops a wave of XP around one spot among {@code live} other pickups and compresses it, like a mass kill does.<br>
+ * Every measurement starts from freshly filled pools, so compression never runs out of work.
+ * Needs the game jar and the mod's resources on the classpath, see {@link Headless}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 50)
+@Measurement(iterations = 50)
+@Fork(1)
+@State(Scope.Thread)
+public class SpawnCompressBenchmark {
+    /**
+     * How many pickups a wave drops, and how far from its center they land
+     */
+    private static final int WAVE = 512;
+    private static final float WAVE_RADIUS = 256f;
+
+    @Param({"1000", "8000", "32000"})
+    public int live;
+
+    private final Random rng = new Random();
+    private float size;
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        Headless.boot();
+        SpireSurvivorsMod.maxPickups = Integer.MAX_VALUE;
+        PickupPool.compressor.budget = TimeUnit.SECONDS.toNanos(10);
+        PickupPool.clearPools();
+        rng.setSeed(live);
+
+        // About two pickups per cell, spread over a few levels so most cells have nothing to merge
+        size = (float)Math.sqrt(live / 2f) * PickupPool.GRID_CELL_SIZE;
+        for (int i = 0; i < live; i++) {
+            PickupPool.spawn(rng.nextFloat() * size, rng.nextFloat() * size, PickupType.XP, rng.nextInt(4), false);
+        }
+        PickupPool.compressor.update();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear() {
+        PickupPool.clearPools();
+    }
+
+    @Benchmark
+    public int spawnAndCompress() {
+        float x = rng.nextFloat() * size;
+        float y = rng.nextFloat() * size;
+        for (int i = 0; i < WAVE; i++) {
+            PickupPool.spawn(x + (rng.nextFloat() * 2f - 1f) * WAVE_RADIUS, y + (rng.nextFloat() * 2f - 1f) * WAVE_RADIUS,
+                    PickupType.XP, 0, true);
+        }
+        PickupPool.compressor.update();
+        return PickupPool.livePickups();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SpawnCompressBenchmark.class.getSimpleName()).build()).run();
+    }
+}
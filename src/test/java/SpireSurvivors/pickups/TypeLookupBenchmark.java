@@ -0,0 +1,82 @@
+package SpireSurvivors.pickups;
+
+import SpireSurvivors.Headless;
+import SpireSurvivors.pickups.AbstractPickup.PickupType;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up the types of a pool's worth of pickups, through the {@code HashMap<Integer, PickupType>} types used to be
+ * kept in and through {@link PickupType#deserialize(int) deserialize()}.<br>
+ * Needs the game jar and the mod's resources on the classpath, see {@link Headless}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TypeLookupBenchmark {
+    /**
+     * The highest type id, so there are a few types to look up besides XP
+     */
+    private static final int TYPES = 8;
+
+    private final int[] ids = new int[PickupPool.POOL_SIZE];
+    private final Map<Integer, PickupType> map = new HashMap<>();
+
+    @Setup
+    public void setup() {
+        Headless.boot();
+        for (int id = 1; id <= TYPES; id++) {
+            if (PickupType.deserialize(id) == null) {
+                PickupType.register(new PickupType(id, new TextureRegion(), 10f, 4f, true, 0));
+            }
+            map.put(id, PickupType.deserialize(id));
+        }
+        // Mostly XP, like a real pool
+        Random rng = new Random(7);
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = rng.nextInt(4) == 0 ? 1 + rng.nextInt(TYPES) : PickupType.XP.id;
+        }
+    }
+
+    @Benchmark
+    public int hashMap() {
+        int sum = 0;
+        for (int id : ids) {
+            sum += map.get(id).flags;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int denseTable() {
+        int sum = 0;
+        for (int id : ids) {
+            sum += PickupType.deserialize(id).flags;
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TypeLookupBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,121 @@
+package SpireSurvivors.util;
+
+import com.badlogic.gdx.math.Intersector;
+import com.badlogic.gdx.math.Polygon;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that attacks hit exactly the same monsters through {@link SpatialHash} as through checking every monster,
+ * the way the effects did before the grid. Uses {@link Intersector#overlapConvexPolygons(Polygon, Polygon)} directly,
+ * which is all {@link PolygonHelper#collides(Polygon, Polygon)} does, since PolygonHelper needs a GL context to load.
+ */
+public class SpatialHashTest {
+    private static final int ROUNDS = 200;
+
+    @Test
+    public void hitsMatchBruteForce() {
+        Random rng = new Random(1234);
+        for (float cellSize : new float[] {32f, 128f, 512f}) {
+            SpatialHash<Polygon> grid = new SpatialHash<>(cellSize);
+            for (int round = 0; round < ROUNDS; round++) {
+                ArrayList<Polygon> monsters = randomMonsters(rng, 1 + rng.nextInt(400));
+                grid.clear();
+                for (Polygon m : monsters) {
+                    grid.insert(m, m.getBoundingRectangle());
+                }
+                for (int attack = 0; attack < 20; attack++) {
+                    Polygon hitbox = randomAttack(rng);
+                    assertEquals("cell size " + cellSize + ", round " + round, bruteForce(monsters, hitbox), viaGrid(grid, hitbox));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void hugeAttacksMatchBruteForce() {
+        // Queries covering more cells than are occupied walk the occupied cells instead
+        Random rng = new Random(99);
+        SpatialHash<Polygon> grid = new SpatialHash<>(16f);
+        for (int round = 0; round < ROUNDS; round++) {
+            ArrayList<Polygon> monsters = randomMonsters(rng, 1 + rng.nextInt(50));
+            grid.clear();
+            for (Polygon m : monsters) {
+                grid.insert(m, m.getBoundingRectangle());
+            }
+            Polygon hitbox = rectangle(rng.nextFloat() * 2000f - 1000f, rng.nextFloat() * 2000f - 1000f,
+                    1000f + rng.nextFloat() * 3000f, 1000f + rng.nextFloat() * 3000f, rng.nextFloat() * 360f);
+            assertEquals(bruteForce(monsters, hitbox), viaGrid(grid, hitbox));
+        }
+    }
+
+    @Test
+    public void queriesNeverReturnDuplicates() {
+        Random rng = new Random(7);
+        SpatialHash<Polygon> grid = new SpatialHash<>(64f);
+        ArrayList<Polygon> monsters = randomMonsters(rng, 300);
+        for (Polygon m : monsters) {
+            grid.insert(m, m.getBoundingRectangle());
+        }
+        ArrayList<Polygon> found = grid.query(-5000f, -5000f, 5000f, 5000f, new ArrayList<>());
+        assertEquals(monsters.size(), found.size());
+        assertEquals(monsters.size(), new HashSet<>(found).size());
+    }
+
+    private static HashSet<Polygon> bruteForce(ArrayList<Polygon> monsters, Polygon hitbox) {
+        HashSet<Polygon> hits = new HashSet<>();
+        for (Polygon m : monsters) {
+            if (Intersector.overlapConvexPolygons(hitbox, m)) {
+                hits.add(m);
+            }
+        }
+        return hits;
+    }
+
+    private static HashSet<Polygon> viaGrid(SpatialHash<Polygon> grid, Polygon hitbox) {
+        HashSet<Polygon> hits = new HashSet<>();
+        for (Polygon m : grid.query(hitbox.getBoundingRectangle(), new ArrayList<>())) {
+            if (Intersector.overlapConvexPolygons(hitbox, m)) {
+                hits.add(m);
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Axis aligned boxes of mixed sizes, like monster hitboxes, spread around and below the origin.
+     */
+    private static ArrayList<Polygon> randomMonsters(Random rng, int count) {
+        ArrayList<Polygon> monsters = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            float size = rng.nextInt(10) == 0 ? 150f : 30f;
+            monsters.add(rectangle(rng.nextFloat() * 3000f - 1500f, rng.nextFloat() * 3000f - 1500f,
+                    size * (0.5f + rng.nextFloat()), size * (0.5f + rng.nextFloat()), 0));
+        }
+        return monsters;
+    }
+
+    /**
+     * Rotated boxes from small slashes up to long projectiles.
+     */
+    private static Polygon randomAttack(Random rng) {
+        return rectangle(rng.nextFloat() * 3000f - 1500f, rng.nextFloat() * 3000f - 1500f,
+                10f + rng.nextFloat() * 300f, 5f + rng.nextFloat() * 100f, rng.nextFloat() * 360f);
+    }
+
+    /**
+     * Built the same way as {@link PolygonHelper#fromPosition(float, float, float, float, float)}.
+     */
+    private static Polygon rectangle(float x, float y, float width, float height, float rotation) {
+        Polygon p = new Polygon(new float[]{0,0, width,0, width,height, 0,height});
+        p.setOrigin(width/2f, height/2f);
+        p.rotate(rotation);
+        p.setPosition(x-width/2f, y-height/2f);
+        return p;
+    }
+}